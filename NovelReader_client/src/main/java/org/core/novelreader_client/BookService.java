@@ -1,16 +1,18 @@
 package org.core.novelreader_client;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import java.io.IOException;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.List;
@@ -18,27 +20,43 @@ import java.util.concurrent.CompletableFuture;
 
 public class BookService {
     private static final String BOOKS_URL = "http://localhost:8080/api/v1/books";
+    private static final String INGESTION_URL = "http://localhost:8080/api/v1/ingestion";
+    // serwer zwraca bibliotekę stronami - kolejne dociągamy dopiero na żądanie
+    private static final int PAGE_SIZE = 50;
     private final HttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final ResumableUpload resumableUpload;
+    // wspólny dla wszystkich okien - czytnik tworzy własny BookService przy każdym otwarciu książki
+    private static final ConditionalGetCache conditionalCache = new ConditionalGetCache();
 
     public BookService() {
         this.httpClient = HttpClient.newBuilder()
                 .connectTimeout(Duration.ofSeconds(10))
                 .build();
+        // serwer może dokładać nowe pola (np. coverHref) - nie chcemy się o nie wywracać
         this.objectMapper = new ObjectMapper()
-                .registerModule(new JavaTimeModule());
+                .registerModule(new JavaTimeModule())
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.resumableUpload = new ResumableUpload(httpClient, objectMapper);
     }
 
-    public CompletableFuture<ObservableList<BookViewModel>> fetchBooks() {
+    public static void clearResponseCache() {
+        conditionalCache.clear();
+    }
+
+    // after = nextCursor poprzedniej strony, null = pierwsza strona
+    public CompletableFuture<BookPage> fetchBooks(String after) {
         String token = AuthService.getAuthToken();
         if (token == null || token.isBlank()) {
-            CompletableFuture<ObservableList<BookViewModel>> failed = new CompletableFuture<>();
+            CompletableFuture<BookPage> failed = new CompletableFuture<>();
             failed.completeExceptionally(new IllegalStateException("Brak tokenu uwierzytelniającego"));
             return failed;
         }
 
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(BOOKS_URL))
+        String url = BOOKS_URL + "?limit=" + PAGE_SIZE
+                + (after != null ? "&after=" + URLEncoder.encode(after, StandardCharsets.UTF_8) : "");
+        HttpRequest request = conditionalCache.withValidator(HttpRequest.newBuilder(), url)
+                .uri(URI.create(url))
                 .header("Authorization", "Bearer " + token)
                 .timeout(Duration.ofSeconds(30))
                 .GET()
@@ -46,16 +64,18 @@ public class BookService {
 
         return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
                 .thenApply(response -> {
-                    if (response.statusCode() == 200) {
+                    String body = conditionalCache.body(url, response);
+                    if (body != null) {
                         try {
-                            String body = response.body();
-                            if (body == null || body.trim().isEmpty()) {
-                                return FXCollections.observableArrayList();
-                            }
-                            List<BookDto> books = objectMapper.readValue(body, new TypeReference<>() {});
                             ObservableList<BookViewModel> observableList = FXCollections.observableArrayList();
-                            books.forEach(book -> observableList.add(new BookViewModel(book)));
-                            return observableList;
+                            if (body.trim().isEmpty()) {
+                                return new BookPage(observableList, null);
+                            }
+                            BookPageDto page = objectMapper.readValue(body, BookPageDto.class);
+                            if (page.items() != null) {
+                                page.items().forEach(book -> observableList.add(new BookViewModel(book)));
+                            }
+                            return new BookPage(observableList, page.nextCursor());
                         } catch (IOException e) {
                             throw new RuntimeException("Nie udało się sparsować danych książek", e);
                         }
@@ -77,21 +97,10 @@ public class BookService {
         }
 
         try {
-            byte[] fileContent = Files.readAllBytes(filePath);
             String fileName = filePath.getFileName().toString();
             String boundary = "----FormBoundary" + System.currentTimeMillis();
 
-            String CRLF = "\r\n";
-            String sb = "--" + boundary + CRLF +
-                    "Content-Disposition: form-data; name=\"file\"; filename=\"" + fileName + "\"" + CRLF +
-                    "Content-Type: application/octet-stream" + CRLF + CRLF;
-
-            byte[] header = sb.getBytes();
-            byte[] footer = (CRLF + "--" + boundary + "--" + CRLF).getBytes();
-            byte[] body = new byte[header.length + fileContent.length + footer.length];
-            System.arraycopy(header, 0, body, 0, header.length);
-            System.arraycopy(fileContent, 0, body, header.length, fileContent.length);
-            System.arraycopy(footer, 0, body, header.length + fileContent.length, footer.length);
+            HttpRequest.BodyPublisher body = buildFileOnlyMultipartBody(boundary, filePath, fileName);
 
             HttpRequest request = HttpRequest.newBuilder()
                     .uri(URI.create(BOOKS_URL + "/parse-metadata"))
@@ -119,19 +128,79 @@ public class BookService {
         }
     }
 
-    public CompletableFuture<BookDto> uploadBook(Path filePath, String title, String author, String description) {
+    // jak parseMetadata, ale serwer zatrzymuje plik - przy zapisie wysyłamy już tylko token (commitStagedBook)
+    // plik idzie kawałkami, więc zerwane połączenie przy dużym pliku nie oznacza wysyłania od zera
+    public CompletableFuture<StagedBookDto> stageBook(Path filePath) {
+        String token = AuthService.getAuthToken();
+        if (token == null || token.isBlank()) {
+            CompletableFuture<StagedBookDto> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new IllegalStateException("Brak tokenu"));
+            return failed;
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                String body = resumableUpload.upload(filePath, token);
+                return objectMapper.readValue(body, StagedBookDto.class);
+            } catch (IOException e) {
+                throw new RuntimeException("Błąd wysyłania pliku: " + e.getMessage(), e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Wysyłanie pliku zostało przerwane", e);
+            }
+        });
+    }
+
+    public CompletableFuture<IngestionJobDto> commitStagedBook(String stagingToken, String title, String author, String description) {
         String token = AuthService.getAuthToken();
         if (token == null || token.isBlank()) {
-            CompletableFuture<BookDto> failed = new CompletableFuture<>();
+            CompletableFuture<IngestionJobDto> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new IllegalStateException("Brak tokenu uwierzytelniającego"));
+            return failed;
+        }
+
+        String json = "{\"title\":\"" + escapeJson(title) + "\"" +
+                ",\"author\":\"" + escapeJson(author) + "\"" +
+                ",\"description\":\"" + escapeJson(description) + "\"}";
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(BOOKS_URL + "/staged/" + stagingToken + "/commit"))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    if (response.statusCode() == 202 || response.statusCode() == 200) {
+                        try {
+                            return objectMapper.readValue(response.body(), IngestionJobDto.class);
+                        } catch (IOException e) {
+                            throw new RuntimeException("Nie udało się sparsować odpowiedzi", e);
+                        }
+                    } else if (response.statusCode() == 401) {
+                        throw new RuntimeException("Sesja wygasła. Zaloguj się ponownie.");
+                    } else if (response.statusCode() == 404) {
+                        throw new RuntimeException("Przesłany plik wygasł na serwerze.");
+                    }
+                    throw new RuntimeException("Błąd zapisu książki: " + response.statusCode());
+                });
+    }
+
+    // serwer odpowiada 202 od razu po zapisaniu pliku, parsowanie idzie w tle - patrz getIngestionJob
+    public CompletableFuture<IngestionJobDto> uploadBook(Path filePath, String title, String author, String description) {
+        String token = AuthService.getAuthToken();
+        if (token == null || token.isBlank()) {
+            CompletableFuture<IngestionJobDto> failed = new CompletableFuture<>();
             failed.completeExceptionally(new IllegalStateException("Brak tokenu uwierzytelniającego"));
             return failed;
         }
 
         try {
-            byte[] fileContent = Files.readAllBytes(filePath);
             String fileName = filePath.getFileName().toString();
             String boundary = "----FormBoundary" + System.currentTimeMillis();
-            byte[] body = buildMultipartBody(boundary, fileContent, fileName, title, author, description);
+            HttpRequest.BodyPublisher body = buildMultipartBody(boundary, filePath, fileName, title, author, description);
 
             HttpRequest request = HttpRequest.newBuilder()
                     .uri(URI.create(BOOKS_URL + "/upload"))
@@ -143,9 +212,9 @@ public class BookService {
 
             return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
                     .thenApply(response -> {
-                        if (response.statusCode() == 200 || response.statusCode() == 201) {
+                        if (response.statusCode() == 202 || response.statusCode() == 200) {
                             try {
-                                return objectMapper.readValue(response.body(), BookDto.class);
+                                return objectMapper.readValue(response.body(), IngestionJobDto.class);
                             } catch (IOException e) {
                                 throw new RuntimeException("Nie udało się sparsować odpowiedzi", e);
                             }
@@ -157,12 +226,40 @@ public class BookService {
                         throw new RuntimeException("Błąd uploadu: " + response.statusCode());
                     });
         } catch (IOException e) {
-            CompletableFuture<BookDto> failed = new CompletableFuture<>();
+            CompletableFuture<IngestionJobDto> failed = new CompletableFuture<>();
             failed.completeExceptionally(new RuntimeException("Błąd odczytu pliku", e));
             return failed;
         }
     }
 
+    public CompletableFuture<IngestionJobDto> getIngestionJob(String jobId) {
+        String token = AuthService.getAuthToken();
+        if (token == null || token.isBlank()) {
+            CompletableFuture<IngestionJobDto> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new IllegalStateException("Brak tokenu"));
+            return failed;
+        }
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(INGESTION_URL + "/" + jobId))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    if (response.statusCode() == 200) {
+                        try {
+                            return objectMapper.readValue(response.body(), IngestionJobDto.class);
+                        } catch (IOException e) {
+                            throw new RuntimeException("Błąd parsowania statusu przetwarzania", e);
+                        }
+                    }
+                    throw new RuntimeException("Błąd pobierania statusu przetwarzania: " + response.statusCode());
+                });
+    }
+
     public CompletableFuture<Void> deleteBook(Long bookId) {
         String token = AuthService.getAuthToken();
         if (token == null || token.isBlank()) {
@@ -219,6 +316,73 @@ public class BookService {
                 });
     }
 
+    public CompletableFuture<List<ChapterSummaryDto>> getTableOfContents(Long bookId) {
+        String token = AuthService.getAuthToken();
+        if (token == null || token.isBlank()) {
+            CompletableFuture<List<ChapterSummaryDto>> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new IllegalStateException("Brak tokenu"));
+            return failed;
+        }
+
+        String url = BOOKS_URL + "/" + bookId + "/chapters";
+        HttpRequest request = conditionalCache.withValidator(HttpRequest.newBuilder(), url)
+                .uri(URI.create(url))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    String body = conditionalCache.body(url, response);
+                    if (body != null) {
+                        try {
+                            return parseTableOfContents(body);
+                        } catch (IOException e) {
+                            throw new RuntimeException("Błąd parsowania spisu treści", e);
+                        }
+                    }
+                    throw new RuntimeException("Błąd pobierania spisu treści: " + response.statusCode());
+                });
+    }
+
+    // osobno, żeby dało się sprawdzić mapowanie odpowiedzi /chapters bez serwera
+    List<ChapterSummaryDto> parseTableOfContents(String body) throws IOException {
+        return objectMapper.readValue(body, new TypeReference<List<ChapterSummaryDto>>() {});
+    }
+
+    public CompletableFuture<ChapterDto> getChapter(Long bookId, int chapterIndex) {
+        String token = AuthService.getAuthToken();
+        if (token == null || token.isBlank()) {
+            CompletableFuture<ChapterDto> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new IllegalStateException("Brak tokenu"));
+            return failed;
+        }
+
+        String url = BOOKS_URL + "/" + bookId + "/chapters/" + chapterIndex;
+        HttpRequest request = conditionalCache.withValidator(HttpRequest.newBuilder(), url)
+                .uri(URI.create(url))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    String body = conditionalCache.body(url, response);
+                    if (body != null) {
+                        try {
+                            return objectMapper.readValue(body, ChapterDto.class);
+                        } catch (IOException e) {
+                            throw new RuntimeException("Błąd parsowania rozdziału", e);
+                        }
+                    } else if (response.statusCode() == 404) {
+                        throw new RuntimeException("Rozdział nie znaleziony.");
+                    }
+                    throw new RuntimeException("Błąd pobierania rozdziału: " + response.statusCode());
+                });
+    }
+
     public CompletableFuture<ProgressDto> getProgress(Long bookId) {
         String token = AuthService.getAuthToken();
         if (token == null || token.isBlank()) {
@@ -267,8 +431,23 @@ public class BookService {
                 .exceptionally(ex -> null);
     }
 
-    private byte[] buildMultipartBody(String boundary, byte[] fileContent, String fileName,
-                                      String title, String author, String description) {
+    // plik idzie do requestu strumieniem (ofFile) - nie trzymamy całego EPUB-a w pamięci
+    private HttpRequest.BodyPublisher buildFileOnlyMultipartBody(String boundary, Path filePath, String fileName) throws IOException {
+        String CRLF = "\r\n";
+        String sb = "--" + boundary + CRLF +
+                "Content-Disposition: form-data; name=\"file\"; filename=\"" + fileName + "\"" + CRLF +
+                "Content-Type: application/octet-stream" + CRLF + CRLF;
+
+        byte[] header = sb.getBytes();
+        byte[] footer = (CRLF + "--" + boundary + "--" + CRLF).getBytes();
+        return HttpRequest.BodyPublishers.concat(
+                HttpRequest.BodyPublishers.ofByteArray(header),
+                HttpRequest.BodyPublishers.ofFile(filePath),
+                HttpRequest.BodyPublishers.ofByteArray(footer));
+    }
+
+    private HttpRequest.BodyPublisher buildMultipartBody(String boundary, Path filePath, String fileName,
+                                                         String title, String author, String description) throws IOException {
         String CRLF = "\r\n";
 
         String sb = "--" + boundary + CRLF +
@@ -286,13 +465,10 @@ public class BookService {
 
         byte[] header = sb.getBytes();
         byte[] footer = (CRLF + "--" + boundary + "--" + CRLF).getBytes();
-
-        byte[] result = new byte[header.length + fileContent.length + footer.length];
-        System.arraycopy(header, 0, result, 0, header.length);
-        System.arraycopy(fileContent, 0, result, header.length, fileContent.length);
-        System.arraycopy(footer, 0, result, header.length + fileContent.length, footer.length);
-
-        return result;
+        return HttpRequest.BodyPublishers.concat(
+                HttpRequest.BodyPublishers.ofByteArray(header),
+                HttpRequest.BodyPublishers.ofFile(filePath),
+                HttpRequest.BodyPublishers.ofByteArray(footer));
     }
 
     public CompletableFuture<List<BookmarkDto>> getBookmarks(Long bookId) {
@@ -434,10 +610,26 @@ public class BookService {
                    .replace("\t", "\\t");
     }
 
-    public record BookDto(Long id, String title, String author, String description, String uploadedAt) {}
+    public record BookDto(Long id, String title, String author, String description, String uploadedAt, String status) {
+        public BookDto(Long id, String title, String author, String description, String uploadedAt) {
+            this(id, title, author, description, uploadedAt, null);
+        }
+    }
+    public record BookPageDto(List<BookDto> items, String nextCursor) {}
+    public record BookPage(ObservableList<BookViewModel> books, String nextCursor) {}
+    public record IngestionJobDto(String jobId, Long bookId, String status, int attempts, String error) {
+        // QUEUED z błędem = serwer spróbuje jeszcze raz, kończymy dopiero na SUCCEEDED albo DEAD
+        public boolean isFinished() {
+            return "SUCCEEDED".equals(status) || "DEAD".equals(status);
+        }
+    }
     public record EpubDto(MetadataDto metadata, List<ChapterDto> chapters) {}
     public record ChapterDto(int index, String title, String html, String text) {}
+    public record ChapterSummaryDto(int index, String title, int length) {}
     public record MetadataDto(String title, String author, String language, String identifier, String description) {}
+    public record StagedBookDto(String stagingToken, String expiresAt, MetadataDto metadata) {}
+    public record CreateUploadSessionDto(String fileName, long totalSize) {}
+    public record UploadSessionDto(String uploadId, int chunkSize, long offset, boolean complete) {}
     public record ProgressDto(Long bookId, int chapterIndex, int offsetInChapter) {}
     public record BookmarkDto(
             Long id,
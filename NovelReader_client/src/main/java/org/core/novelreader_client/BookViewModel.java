@@ -9,6 +9,7 @@ public class BookViewModel {
     private final SimpleStringProperty author = new SimpleStringProperty();
     private final SimpleStringProperty description = new SimpleStringProperty();
     private final SimpleStringProperty uploadedAt = new SimpleStringProperty();
+    private final SimpleStringProperty status = new SimpleStringProperty();
 
     public BookViewModel(BookService.BookDto dto) {
         if (dto.id() != null) {
@@ -18,6 +19,7 @@ public class BookViewModel {
         this.author.set(dto.author() == null ? "Nieznany autor" : dto.author());
         this.description.set(dto.description() == null ? "Brak opisu" : dto.description());
         this.uploadedAt.set(dto.uploadedAt() == null ? "" : dto.uploadedAt());
+        this.status.set(dto.status() == null ? "READY" : dto.status());
     }
 
     public long getId() {
@@ -59,5 +61,16 @@ public class BookViewModel {
     public SimpleStringProperty uploadedAtProperty() {
         return uploadedAt;
     }
-}
 
+    public String getStatus() {
+        return status.get();
+    }
+
+    public SimpleStringProperty statusProperty() {
+        return status;
+    }
+
+    public boolean isReady() {
+        return "READY".equals(status.get());
+    }
+}
@@ -0,0 +1,49 @@
+package org.core.novelreader_client;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// ostatnie odpowiedzi GET z ETagiem - przy ponownym otwarciu serwer odpowiada 304 i bierzemy ciało stąd
+class ConditionalGetCache {
+    private static final int MAX_ENTRIES = 64;
+
+    private final Map<String, Entry> entries = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            });
+
+    HttpRequest.Builder withValidator(HttpRequest.Builder builder, String url) {
+        Entry entry = entries.get(url);
+        if (entry != null) {
+            builder.header("If-None-Match", entry.etag());
+        }
+        return builder;
+    }
+
+    // 200 -> zapamiętujemy i zwracamy ciało, 304 -> zwracamy zapamiętane, inne statusy -> null
+    String body(String url, HttpResponse<String> response) {
+        if (response.statusCode() == 304) {
+            Entry entry = entries.get(url);
+            return entry != null ? entry.body() : null;
+        }
+        if (response.statusCode() != 200) {
+            return null;
+        }
+        response.headers().firstValue("ETag").ifPresentOrElse(
+                etag -> entries.put(url, new Entry(etag, response.body())),
+                () -> entries.remove(url));
+        return response.body();
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    private record Entry(String etag, String body) {}
+}
@@ -16,6 +16,8 @@ import javafx.stage.FileChooser;
 
 import java.nio.file.Path;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 public class HelloController {
     @FXML
@@ -67,6 +69,7 @@ public class HelloController {
     @FXML
     protected void onLogoutClick() throws IOException {
         AuthService.logout();
+        BookService.clearResponseCache();
         FXMLLoader loader = new FXMLLoader(HelloApplication.class.getResource("login-view.fxml"));
         Scene scene = new Scene(loader.load(), 400, 550);
         Stage stage = (Stage) addBookButton.getScene().getWindow();
@@ -97,10 +100,11 @@ public class HelloController {
         setLoading(true);
         clearError();
 
-        bookService.fetchBooks()
-                .thenAccept(books -> Platform.runLater(() -> {
+        bookService.fetchBooks(null)
+                .thenAccept(page -> Platform.runLater(() -> {
                     setLoading(false);
-                    displayBooks(books);
+                    displayBooks(page.books());
+                    showMoreButton(page.nextCursor());
                 }))
                 .exceptionally(ex -> {
                     Platform.runLater(() -> {
@@ -130,6 +134,36 @@ public class HelloController {
         }
     }
 
+    // kolejna strona biblioteki dopiero po kliknięciu - przy tysiącach książek nie budujemy wszystkich kart naraz
+    private void showMoreButton(String nextCursor) {
+        if (nextCursor == null) {
+            return;
+        }
+        Button moreBtn = new Button("Pokaż więcej");
+        moreBtn.setStyle("-fx-background-color: #667eea; -fx-text-fill: white; -fx-padding: 6 12; -fx-background-radius: 4;");
+        moreBtn.setOnAction(e -> loadMoreBooks(moreBtn, nextCursor));
+        booksContainer.getChildren().add(moreBtn);
+    }
+
+    private void loadMoreBooks(Button moreBtn, String cursor) {
+        moreBtn.setDisable(true);
+        bookService.fetchBooks(cursor)
+                .thenAccept(page -> Platform.runLater(() -> {
+                    booksContainer.getChildren().remove(moreBtn);
+                    for (BookViewModel book : page.books()) {
+                        booksContainer.getChildren().add(createBookCard(book));
+                    }
+                    showMoreButton(page.nextCursor());
+                }))
+                .exceptionally(ex -> {
+                    Platform.runLater(() -> {
+                        moreBtn.setDisable(false);
+                        showError("Nie udało się pobrać książek: " + getErrorMessage(ex));
+                    });
+                    return null;
+                });
+    }
+
     private void displayEmptyState() {
         booksContainer.getChildren().clear();
         Label emptyLabel = new Label("Brak książek. Kliknij 'Dodaj Książkę' aby dodać pierwszą.");
@@ -151,12 +185,21 @@ public class HelloController {
 
         info.getChildren().addAll(title, author);
 
+        // książka świeżo wrzucona - serwer jeszcze ją przetwarza
+        if (!book.isReady()) {
+            boolean failed = "FAILED".equals(book.getStatus());
+            Label status = new Label(failed ? "Błąd przetwarzania pliku" : "Przetwarzanie...");
+            status.setStyle(failed ? "-fx-text-fill: #e74c3c; -fx-font-size: 12px;" : "-fx-text-fill: #888; -fx-font-size: 12px;");
+            info.getChildren().add(status);
+        }
+
         Region spacer = new Region();
         HBox.setHgrow(spacer, Priority.ALWAYS);
 
         Button readBtn = new Button("Czytaj");
         readBtn.setStyle("-fx-background-color: #667eea; -fx-text-fill: white; -fx-padding: 6 12; -fx-background-radius: 4;");
         readBtn.setOnAction(e -> openReader(book));
+        readBtn.setDisable(!book.isReady());
 
         Button deleteBtn = new Button("Usuń");
         deleteBtn.setStyle("-fx-background-color: #e74c3c; -fx-text-fill: white; -fx-padding: 6 12; -fx-background-radius: 4;");
@@ -198,26 +241,28 @@ public class HelloController {
         setLoading(true);
         statusLabel.setText("Parsowanie metadanych...");
 
-        bookService.parseMetadata(filePath)
-                .thenAccept(metadata -> Platform.runLater(() -> {
+        // plik leci na serwer raz - zostaje tam do zatwierdzenia okna, potem wysyłamy już tylko token
+        bookService.stageBook(filePath)
+                .thenAccept(staged -> Platform.runLater(() -> {
                     setLoading(false);
                     statusLabel.setText("");
-                    showMetadataDialogWithData(filePath,
-                            metadata.title() != null ? metadata.title() : "",
-                            metadata.author() != null ? metadata.author() : "",
-                            metadata.description() != null ? metadata.description() : "");
+                    BookService.MetadataDto metadata = staged.metadata();
+                    showMetadataDialogWithData(filePath, staged.stagingToken(),
+                            metadata != null && metadata.title() != null ? metadata.title() : "",
+                            metadata != null && metadata.author() != null ? metadata.author() : "",
+                            metadata != null && metadata.description() != null ? metadata.description() : "");
                 }))
                 .exceptionally(ex -> {
                     Platform.runLater(() -> {
                         setLoading(false);
                         statusLabel.setText("");
-                        showMetadataDialogWithData(filePath, "", "", "");
+                        showMetadataDialogWithData(filePath, null, "", "", "");
                     });
                     return null;
                 });
     }
 
-    private void showMetadataDialogWithData(Path filePath, String parsedTitle, String parsedAuthor, String parsedDescription) {
+    private void showMetadataDialogWithData(Path filePath, String stagingToken, String parsedTitle, String parsedAuthor, String parsedDescription) {
         Dialog<BookMetadata> dialog = new Dialog<>();
         dialog.setTitle("Metadane książki");
         dialog.setHeaderText("Podaj informacje o książce:");
@@ -264,22 +309,33 @@ public class HelloController {
                 showError("Tytuł nie może być pusty!");
                 return;
             }
-            uploadBook(filePath, metadata);
+            if (stagingToken != null) {
+                commitStagedBook(filePath, stagingToken, metadata);
+            } else {
+                uploadBook(filePath, metadata);
+            }
         });
     }
 
+    private void commitStagedBook(Path filePath, String stagingToken, BookMetadata metadata) {
+        setLoading(true);
+        clearError();
+
+        bookService.commitStagedBook(stagingToken, metadata.title(), metadata.author(), metadata.description())
+                .thenAccept(job -> Platform.runLater(() -> onBookAccepted(job)))
+                .exceptionally(ex -> {
+                    // np. token wygasł, bo okno było długo otwarte - wysyłamy plik jeszcze raz
+                    Platform.runLater(() -> uploadBook(filePath, metadata));
+                    return null;
+                });
+    }
+
     private void uploadBook(Path filePath, BookMetadata metadata) {
         setLoading(true);
         clearError();
 
         bookService.uploadBook(filePath, metadata.title(), metadata.author(), metadata.description())
-                .thenAccept(book -> Platform.runLater(() -> {
-                    setLoading(false);
-                    showError("");
-                    statusLabel.setText("Książka dodana pomyślnie!");
-                    statusLabel.setStyle("-fx-text-fill: #27ae60;");
-                    loadBooks();
-                }))
+                .thenAccept(job -> Platform.runLater(() -> onBookAccepted(job)))
                 .exceptionally(ex -> {
                     Platform.runLater(() -> {
                         setLoading(false);
@@ -289,6 +345,47 @@ public class HelloController {
                 });
     }
 
+    private void onBookAccepted(BookService.IngestionJobDto job) {
+        setLoading(false);
+        showError("");
+        statusLabel.setText("Książka dodana, trwa przetwarzanie...");
+        statusLabel.setStyle("-fx-text-fill: #888;");
+        loadBooks();
+        watchIngestion(job.jobId());
+    }
+
+    // odpytujemy status co sekundę aż serwer skończy, potem odświeżamy listę
+    private void watchIngestion(String jobId) {
+        CompletableFuture.runAsync(() -> {}, CompletableFuture.delayedExecutor(1, TimeUnit.SECONDS))
+                .thenCompose(v -> bookService.getIngestionJob(jobId))
+                .thenAccept(job -> {
+                    if (!job.isFinished() && job.error() != null) {
+                        // pierwsza próba nieudana - serwer ponowi ją sam, nie ma sensu czekać na to w oknie
+                        Platform.runLater(() -> {
+                            showError("Przetwarzanie książki nie powiodło się, serwer spróbuje ponownie później.");
+                            loadBooks();
+                        });
+                        return;
+                    }
+                    if (!job.isFinished()) {
+                        watchIngestion(jobId);
+                        return;
+                    }
+                    Platform.runLater(() -> {
+                        if ("SUCCEEDED".equals(job.status())) {
+                            statusLabel.setText("Książka dodana pomyślnie!");
+                            statusLabel.setStyle("-fx-text-fill: #27ae60;");
+                        } else {
+                            showError("Nie udało się przetworzyć książki: " + (job.error() != null ? job.error() : "nieznany błąd"));
+                        }
+                        loadBooks();
+                    });
+                })
+                .exceptionally(ex -> {
+                    Platform.runLater(() -> showError("Nie udało się sprawdzić statusu książki: " + getErrorMessage(ex)));
+                    return null;
+                });
+    }
 
     private void deleteBook(Long bookId, Runnable onSuccess) {
         Alert confirmDialog = new Alert(Alert.AlertType.CONFIRMATION);
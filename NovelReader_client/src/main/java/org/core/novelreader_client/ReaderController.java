@@ -14,7 +14,9 @@ import javafx.scene.web.WebView;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Timer;
 import java.util.TimerTask;
 
@@ -35,7 +37,8 @@ public class ReaderController {
 
     private BookService bookService;
     private BookViewModel currentBook;
-    private List<BookService.ChapterDto> chapters;
+    private List<BookService.ChapterSummaryDto> chapters;
+    private final Map<Integer, BookService.ChapterDto> loadedChapters = new HashMap<>();
     private int currentChapterIndex = 0;
     private int fontSize = 16;
     private boolean darkMode = false;
@@ -71,19 +74,20 @@ public class ReaderController {
         bookService.getProgress(book.getId())
                 .thenAccept(progress -> {
                     currentChapterIndex = progress.chapterIndex();
-                    loadParsedBook();
+                    loadTableOfContents();
                 })
                 .exceptionally(ex -> {
-                    loadParsedBook();
+                    loadTableOfContents();
                     return null;
                 });
     }
 
-    private void loadParsedBook() {
-        bookService.getParsedBook(currentBook.getId())
-                .thenAccept(epub -> Platform.runLater(() -> {
+    // najpierw sam spis treści, treść rozdziałów dociągamy dopiero przy wyświetlaniu
+    private void loadTableOfContents() {
+        bookService.getTableOfContents(currentBook.getId())
+                .thenAccept(toc -> Platform.runLater(() -> {
                     setLoading(false);
-                    this.chapters = epub.chapters();
+                    this.chapters = toc;
                     if (chapters == null || chapters.isEmpty()) {
                         showError("Książka nie zawiera rozdziałów");
                         return;
@@ -109,7 +113,32 @@ public class ReaderController {
     private void displayCurrentChapter(double scrollPercent) {
         if (chapters == null || chapters.isEmpty()) return;
 
-        BookService.ChapterDto chapter = chapters.get(currentChapterIndex);
+        int chapterIndex = currentChapterIndex;
+        BookService.ChapterDto cached = loadedChapters.get(chapterIndex);
+        if (cached != null) {
+            renderChapter(cached, scrollPercent);
+            return;
+        }
+
+        setLoading(true);
+        bookService.getChapter(currentBook.getId(), chapterIndex)
+                .thenAccept(chapter -> Platform.runLater(() -> {
+                    setLoading(false);
+                    loadedChapters.put(chapterIndex, chapter);
+                    if (chapterIndex == currentChapterIndex) {
+                        renderChapter(chapter, scrollPercent);
+                    }
+                }))
+                .exceptionally(ex -> {
+                    Platform.runLater(() -> {
+                        setLoading(false);
+                        showError("Nie udało się załadować rozdziału: " + getErrorMessage(ex));
+                    });
+                    return null;
+                });
+    }
+
+    private void renderChapter(BookService.ChapterDto chapter, double scrollPercent) {
         String html = wrapInHtml(chapter.html() != null ? chapter.html() : chapter.text());
         contentWebView.getEngine().loadContent(html);
 
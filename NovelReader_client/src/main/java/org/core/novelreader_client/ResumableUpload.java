@@ -0,0 +1,162 @@
+package org.core.novelreader_client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.core.novelreader_client.BookService.CreateUploadSessionDto;
+import org.core.novelreader_client.BookService.UploadSessionDto;
+
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+
+// upload kawałkami przez /api/v1/uploads - po zerwanym połączeniu wznawiamy od offsetu serwera, a nie od zera
+class ResumableUpload {
+    private static final String UPLOADS_URL = "http://localhost:8080/api/v1/uploads";
+    private static final int MAX_FAILURES = 5;
+    private static final long RETRY_DELAY_MS = 1000;
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+
+    ResumableUpload(HttpClient httpClient, ObjectMapper objectMapper) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+    }
+
+    // blokuje - wołać poza wątkiem FX; zwraca ciało odpowiedzi /complete (StagedBookResponse)
+    String upload(Path file, String token) throws IOException, InterruptedException {
+        long size = Files.size(file);
+        UploadSessionDto session = createSession(file.getFileName().toString(), size, token);
+        try {
+            sendChunks(file, size, session, token);
+            return complete(session.uploadId(), token);
+        } catch (IOException | RuntimeException e) {
+            abortQuietly(session.uploadId(), token);
+            throw e;
+        }
+    }
+
+    private void sendChunks(Path file, long size, UploadSessionDto session, String token) throws IOException, InterruptedException {
+        byte[] buffer = new byte[session.chunkSize()];
+        long offset = session.offset();
+        int failures = 0;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (offset < size) {
+                int length = (int) Math.min(buffer.length, size - offset);
+                readFully(channel, buffer, offset, length);
+
+                HttpResponse<String> response;
+                try {
+                    response = httpClient.send(chunkRequest(session.uploadId(), offset, buffer, length, token),
+                            HttpResponse.BodyHandlers.ofString());
+                } catch (IOException e) {
+                    response = null;  // zerwane połączenie - ponawiamy ten sam kawałek
+                }
+
+                if (response != null && response.statusCode() == 200) {
+                    offset = objectMapper.readValue(response.body(), UploadSessionDto.class).offset();
+                    failures = 0;
+                    continue;
+                }
+                if (response != null && response.statusCode() == 409) {
+                    // serwer ma inny offset (np. poprzednia próba jednak doszła) - kontynuujemy od jego
+                    offset = objectMapper.readTree(response.body()).path("offset").asLong(offset);
+                } else if (response != null && response.statusCode() != 400) {
+                    // 400 = kawałek uszkodzony po drodze, warto ponowić; reszta to błąd na stałe
+                    throw new IOException("serwer odpowiedział " + response.statusCode());
+                }
+
+                if (++failures > MAX_FAILURES) {
+                    throw new IOException("zbyt wiele nieudanych prób");
+                }
+                Thread.sleep(RETRY_DELAY_MS * failures);
+            }
+        }
+    }
+
+    private UploadSessionDto createSession(String fileName, long size, String token) throws IOException, InterruptedException {
+        String json = objectMapper.writeValueAsString(new CreateUploadSessionDto(fileName, size));
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(UPLOADS_URL))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 201) {
+            throw new IOException("nie udało się rozpocząć uploadu (" + response.statusCode() + ")");
+        }
+        return objectMapper.readValue(response.body(), UploadSessionDto.class);
+    }
+
+    private HttpRequest chunkRequest(String uploadId, long offset, byte[] buffer, int length, String token) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(UPLOADS_URL + "/" + uploadId + "/chunks?offset=" + offset))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/octet-stream")
+                .header("X-Chunk-Sha256", sha256(buffer, length))
+                .timeout(Duration.ofSeconds(60))
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(buffer, 0, length))
+                .build();
+    }
+
+    private String complete(String uploadId, String token) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(UPLOADS_URL + "/" + uploadId + "/complete"))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 201) {
+            throw new IOException("nie udało się zakończyć uploadu (" + response.statusCode() + ")");
+        }
+        return response.body();
+    }
+
+    private void abortQuietly(String uploadId, String token) {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(UPLOADS_URL + "/" + uploadId))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(10))
+                .DELETE()
+                .build();
+        // i tak wygaśnie na serwerze, więc błąd tutaj nie ma znaczenia
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private static void readFully(FileChannel channel, byte[] buffer, long offset, int length) throws IOException {
+        ByteBuffer target = ByteBuffer.wrap(buffer, 0, length);
+        while (target.hasRemaining()) {
+            if (channel.read(target, offset + target.position()) == -1) {
+                throw new EOFException("Plik skrócił się w trakcie wysyłania");
+            }
+        }
+    }
+
+    private static String sha256(byte[] buffer, int length) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(buffer, 0, length);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -15,6 +15,7 @@ class BookServiceDtoTest {
         assertEquals("Tytuł", dto.title());
         assertEquals("Autor", dto.author());
     }
+
     @Test
     @DisplayName("ChapterDto powinien poprawnie przechowywać dane rozdziału")
     void chapterDtoShouldStoreDataCorrectly() {
@@ -25,6 +26,7 @@ class BookServiceDtoTest {
         assertEquals("Rozdział 1", chapter.title());
         assertEquals("<p>Treść HTML</p>", chapter.html());
     }
+
     @Test
     @DisplayName("ProgressDto powinien przechowywać postęp czytania")
     void progressDtoShouldStoreReadingProgress() {
@@ -33,6 +35,7 @@ class BookServiceDtoTest {
         assertEquals(5, progress.chapterIndex());
         assertEquals(120, progress.offsetInChapter());
     }
+
     @Test
     @DisplayName("EpubDto z pustą listą rozdziałów")
     void epubDtoWithEmptyChapters() {
@@ -43,4 +46,23 @@ class BookServiceDtoTest {
         assertNotNull(epub.chapters());
         assertTrue(epub.chapters().isEmpty());
     }
+
+    @Test
+    @DisplayName("Spis treści z /chapters powinien dać rozdziały w kolejności, także bez tytułu")
+    void tableOfContentsShouldBeParsedFromChaptersResponse() throws Exception {
+        String body = """
+                [
+                  {"index":0,"title":"Księga pierwsza","length":48213},
+                  {"index":1,"title":null,"length":0},
+                  {"index":2,"title":"Epilog","length":1520,"anchor":"epilog"}
+                ]
+                """;
+        List<BookService.ChapterSummaryDto> toc = new BookService().parseTableOfContents(body);
+        assertEquals(3, toc.size());
+        assertEquals("Księga pierwsza", toc.get(0).title());
+        assertEquals(48213, toc.get(0).length());
+        assertNull(toc.get(1).title());
+        assertEquals(2, toc.get(2).index());
+        assertEquals("Epilog", toc.get(2).title());
+    }
 }
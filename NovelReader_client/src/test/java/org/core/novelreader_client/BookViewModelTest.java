@@ -16,6 +16,7 @@ class BookViewModelTest {
         assertEquals("Andrzej Sapkowski", viewModel.getAuthor());
         assertEquals("Saga o wiedźminie", viewModel.getDescription());
     }
+
     @Test
     @DisplayName("Powinien ustawić domyślny tytuł gdy null")
     void shouldSetDefaultTitleWhenNull() {
@@ -23,6 +24,7 @@ class BookViewModelTest {
         BookViewModel viewModel = new BookViewModel(dto);
         assertEquals("Bez tytułu", viewModel.getTitle());
     }
+
     @Test
     @DisplayName("Powinien ustawić domyślnego autora gdy null")
     void shouldSetDefaultAuthorWhenNull() {
@@ -30,6 +32,7 @@ class BookViewModelTest {
         BookViewModel viewModel = new BookViewModel(dto);
         assertEquals("Nieznany autor", viewModel.getAuthor());
     }
+
     @Test
     @DisplayName("Powinien obsłużyć wszystkie pola null")
     void shouldHandleAllNullFields() {
@@ -40,4 +43,13 @@ class BookViewModelTest {
         assertEquals("Nieznany autor", viewModel.getAuthor());
         assertEquals("Brak opisu", viewModel.getDescription());
     }
+
+    @Test
+    @DisplayName("Powinien traktować książkę bez statusu jako gotową")
+    void shouldTreatMissingStatusAsReady() {
+        BookViewModel legacy = new BookViewModel(new BookService.BookDto(1L, "Tytuł", null, null, null));
+        BookViewModel pending = new BookViewModel(new BookService.BookDto(2L, "Tytuł", null, null, null, "PROCESSING"));
+        assertTrue(legacy.isReady());
+        assertFalse(pending.isReady());
+    }
 }
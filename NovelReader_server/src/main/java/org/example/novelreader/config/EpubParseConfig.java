@@ -0,0 +1,27 @@
+package org.example.novelreader.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// rozdziały jednej książki parsujemy równolegle, ale na własnej puli -
+// commonPool dzielą z nami parallel streamy i CompletableFuture z całej aplikacji
+@Configuration
+public class EpubParseConfig {
+
+    @Bean(name = "epubParsePool", destroyMethod = "shutdown")
+    public ForkJoinPool epubParsePool(@Value("${epub.parse.parallelism}") int parallelism) {
+        // domyślnie połowa rdzeni - reszta zostaje dla wątków obsługujących requesty
+        int threads = parallelism > 0 ? parallelism : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        return new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("epub-parse-" + counter.incrementAndGet());
+            return thread;
+        }, null, false);
+    }
+}
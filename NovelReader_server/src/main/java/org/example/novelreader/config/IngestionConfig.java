@@ -0,0 +1,30 @@
+package org.example.novelreader.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+// osobna, ograniczona pula na parsowanie EPUB-ów - wątki Tomcata zostają dla szybkich requestów
+// @EnableScheduling - IngestionWorker odpytuje tabelę ingestion_jobs
+@Configuration
+@EnableScheduling
+public class IngestionConfig {
+
+    @Bean(name = "ingestionExecutor")
+    public ThreadPoolTaskExecutor ingestionExecutor(
+            @Value("${ingestion.worker-threads}") int workerThreads,
+            @Value("${ingestion.queue-capacity}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workerThreads);
+        executor.setMaxPoolSize(workerThreads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("ingestion-");
+        // przy zamykaniu aplikacji dokończ rozpoczęte książki zamiast je ucinać
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
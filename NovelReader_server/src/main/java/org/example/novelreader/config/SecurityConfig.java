@@ -1,9 +1,10 @@
 package org.example.novelreader.config;
 
-import lombok.RequiredArgsConstructor;
 import org.example.novelreader.security.JwtAuthenticationFilter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -13,12 +14,20 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.util.Set;
+
 @Configuration
 @EnableWebSecurity
-@RequiredArgsConstructor
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final Set<String> admins;  // ci sami co przy imporcie katalogu (book.import.admins)
+
+    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter,
+                          @Value("${book.import.admins}") Set<String> admins) {
+        this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.admins = admins;
+    }
 
     @Bean
     public PasswordEncoder passwordEncoder() {
@@ -33,6 +42,12 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/v1/auth/**").permitAll()
                         .requestMatchers("/swagger-ui/**", "/swagger-ui.html", "/v1/api-docs/**").permitAll()
+                        // sondy liveness/readiness nie mają tokenu
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        // metryki JVM i HTTP całego serwera - nie dla każdego zarejestrowanego konta
+                        .requestMatchers("/actuator/**").access((authentication, context) ->
+                                new AuthorizationDecision(authentication.get().isAuthenticated()
+                                        && admins.contains(authentication.get().getName())))
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
@@ -10,21 +10,34 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.example.novelreader.dto.*;
-import org.example.novelreader.entity.User;
-import org.example.novelreader.security.CustomUserDetailsService;
+import org.example.novelreader.entity.Book;
+import org.example.novelreader.security.AuthenticatedUser;
+import org.example.novelreader.service.BookContentStream;
 import org.example.novelreader.service.BookService;
+import org.example.novelreader.service.BookStagingService;
 import org.example.novelreader.service.BookProgressService;
 import org.example.novelreader.service.BookmarkService;
 import org.example.novelreader.service.EpubService;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
+import java.util.UUID;
 
 // kontroler tylko przyjmuje requesty i oddaje do serwisów (SRP - Single Responsibility)
 // cała logika siedzi w service layer (DIP - Dependency Inversion)
@@ -36,39 +49,78 @@ import java.util.List;
 @SecurityRequirement(name = "bearerAuth")
 public class BookController {
 
+    // klient zawsze pyta serwer, ale z If-None-Match - niezmieniona treść to samo 304 bez ciała
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+    private static final CacheControl PREVIEW_CACHE = CacheControl.maxAge(Duration.ofDays(365)).cachePrivate();
+    private static final int MAX_PREVIEW_IDS = 200;
+
     private final BookService bookService;
     private final BookProgressService progressService;
     private final BookmarkService bookmarkService;
     private final EpubService epubService;
-    private final CustomUserDetailsService customUserDetailsService;
+    private final BookStagingService bookStagingService;
+    private final FileRangeResponder fileRangeResponder;
 
-    @Operation(summary = "Parsowanie metadanych EPUB", description = "Przesyła plik EPUB i zwraca jego metadane (tytuł, autor, opis itp.)")
+    @Operation(summary = "Parsowanie metadanych EPUB",
+            description = "Przesyła plik EPUB i zwraca jego metadane (tytuł, autor, opis itp.). "
+                    + "Z stage=true plik zostaje na serwerze, a odpowiedź zawiera token do /staged/{token}/commit")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Metadane zostały pomyślnie sparsowane",
                     content = @Content(schema = @Schema(implementation = MetadataDto.class))),
+            @ApiResponse(responseCode = "201", description = "Plik został odłożony do zatwierdzenia",
+                    content = @Content(schema = @Schema(implementation = StagedBookResponse.class))),
             @ApiResponse(responseCode = "400", description = "Nieprawidłowy format pliku"),
             @ApiResponse(responseCode = "500", description = "Błąd podczas parsowania pliku")
     })
     @PostMapping("/parse-metadata")
-    public ResponseEntity<MetadataDto> parseMetadata(
+    public ResponseEntity<?> parseMetadata(
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Parameter(description = "Plik EPUB do sparsowania", required = true)
-            @RequestParam("file") MultipartFile file
+            @RequestParam("file") MultipartFile file,
+            @Parameter(description = "Czy zachować plik do późniejszego zatwierdzenia")
+            @RequestParam(value = "stage", defaultValue = "false") boolean stage
     ) throws IOException {
-        EpubDto parsed = epubService.parseEpub(file);
-        return ResponseEntity.ok(parsed.getMetadata());
+        if (!stage) {
+            return ResponseEntity.ok(epubService.parseMetadata(file));
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(bookStagingService.stage(user.getUserId(), file));
+    }
+
+    @Operation(summary = "Zatwierdzenie odłożonego pliku",
+            description = "Tworzy książkę z pliku przesłanego wcześniej przez /parse-metadata?stage=true. "
+                    + "Puste pola biorą wartości z metadanych pliku")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Książka została przyjęta do przetworzenia",
+                    content = @Content(schema = @Schema(implementation = IngestionJobResponse.class))),
+            @ApiResponse(responseCode = "401", description = "Brak autoryzacji"),
+            @ApiResponse(responseCode = "404", description = "Token nie istnieje lub wygasł")
+    })
+    @PostMapping("/staged/{token}/commit")
+    public ResponseEntity<IngestionJobResponse> commitStagedBook(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @Parameter(description = "Token z odpowiedzi /parse-metadata?stage=true", required = true)
+            @PathVariable UUID token,
+            @RequestBody(required = false) StagedBookCommitRequest request
+    ) {
+        IngestionJobResponse job = bookService.commitStagedBook(user.getUserId(), token,
+                request != null ? request : new StagedBookCommitRequest());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/ingestion/" + job.getJobId()))
+                .body(job);
     }
 
-    @Operation(summary = "Przesłanie nowej książki", description = "Przesyła plik EPUB i zapisuje książkę w bibliotece użytkownika")
+    @Operation(summary = "Przesłanie nowej książki",
+            description = "Zapisuje plik EPUB i zgłasza jego przetwarzanie w tle. Postęp można śledzić pod /api/v1/ingestion/{jobId}")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Książka została pomyślnie przesłana",
-                    content = @Content(schema = @Schema(implementation = BookResponse.class))),
+            @ApiResponse(responseCode = "202", description = "Książka została przyjęta do przetworzenia",
+                    content = @Content(schema = @Schema(implementation = IngestionJobResponse.class))),
             @ApiResponse(responseCode = "400", description = "Nieprawidłowe dane wejściowe"),
             @ApiResponse(responseCode = "401", description = "Brak autoryzacji"),
             @ApiResponse(responseCode = "500", description = "Błąd podczas zapisywania książki")
     })
     @PostMapping("/upload")
-    public ResponseEntity<BookResponse> uploadBook(
-            Authentication auth,
+    public ResponseEntity<IngestionJobResponse> uploadBook(
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Parameter(description = "Plik EPUB do przesłania", required = true)
             @RequestParam("file") MultipartFile file,
             @Parameter(description = "Tytuł książki", required = true)
@@ -78,7 +130,6 @@ public class BookController {
             @Parameter(description = "Opis książki")
             @RequestParam(value = "description", required = false) String description
     ) {
-        User user = customUserDetailsService.findUserByUsernameOrEmail(auth.getName());
         BookRequest req = BookRequest.builder()
                 .file(file)
                 .title(title)
@@ -86,36 +137,143 @@ public class BookController {
                 .description(description)
                 .build();
 
-        return ResponseEntity.ok(bookService.uploadBook(user.getId(), req));
+        IngestionJobResponse job = bookService.uploadBook(user.getUserId(), req);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/ingestion/" + job.getJobId()))
+                .body(job);
     }
 
-    @Operation(summary = "Pobranie listy książek użytkownika", description = "Zwraca wszystkie książki należące do zalogowanego użytkownika")
+    @Operation(summary = "Pobranie listy książek użytkownika",
+            description = "Zwraca stronę książek zalogowanego użytkownika. Sortowanie (sort): title, author, uploadedAt (domyślne) "
+                    + "albo lastRead, kierunek (direction): asc/desc. Filtry: status oraz q (fragment tytułu lub autora). "
+                    + "Kolejną stronę pobiera się z after=nextCursor i tymi samymi parametrami; nextCursor = null to ostatnia strona")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Lista książek została pobrana pomyślnie"),
+            @ApiResponse(responseCode = "304", description = "Lista nie zmieniła się od ostatniego pobrania (If-None-Match)"),
+            @ApiResponse(responseCode = "400", description = "Nieznane sortowanie, zły limit albo kursor z innej listy"),
             @ApiResponse(responseCode = "401", description = "Brak autoryzacji")
     })
     @GetMapping
-    public ResponseEntity<List<BookResponse>> getUserBooks(Authentication auth) {
-        User user = customUserDetailsService.findUserByUsernameOrEmail(auth.getName());
-        return ResponseEntity.ok(bookService.getUserBooks(user.getId()));
+    public ResponseEntity<BookPageResponse> getUserBooks(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @ParameterObject BookListRequest request,
+            WebRequest webRequest
+    ) {
+        // słaby ETag - lista to widok, nie bajt w bajt ten sam plik
+        if (isNotModified(webRequest, bookService.getLibraryTag(user.getUserId(), request))) {
+            return notModified();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .body(bookService.getUserBooks(user.getUserId(), request));
     }
 
-    @Operation(summary = "Pobranie pełnej treści książki", description = "Zwraca sparsowaną zawartość książki EPUB (metadane + rozdziały)")
+    @Operation(summary = "Pobranie pełnej treści książki",
+            description = "Zwraca sparsowaną zawartość książki EPUB (metadane + rozdziały). Odpowiedź jest wysyłana strumieniowo, rozdział po rozdziale")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Treść książki została pobrana pomyślnie",
                     content = @Content(schema = @Schema(implementation = EpubDto.class))),
+            @ApiResponse(responseCode = "304", description = "Treść nie zmieniła się od ostatniego pobrania (If-None-Match)"),
             @ApiResponse(responseCode = "401", description = "Brak autoryzacji"),
             @ApiResponse(responseCode = "403", description = "Brak dostępu do tej książki"),
-            @ApiResponse(responseCode = "404", description = "Książka nie została znaleziona")
+            @ApiResponse(responseCode = "404", description = "Książka nie została znaleziona"),
+            @ApiResponse(responseCode = "409", description = "Książka jest jeszcze przetwarzana")
     })
     @GetMapping("/{id}/content")
-    public ResponseEntity<EpubDto> getBookContent(
+    public ResponseEntity<StreamingResponseBody> getBookContent(
             @Parameter(description = "ID książki", required = true)
             @PathVariable Long id,
-            Authentication auth
+            @AuthenticationPrincipal AuthenticatedUser user,
+            WebRequest webRequest
     ) {
-        User user = customUserDetailsService.findUserByUsernameOrEmail(auth.getName());
-        return ResponseEntity.ok(bookService.getParsedBook(user.getId(), id));
+        // 404/409 lecą jeszcze tutaj - do strumienia trafia już tylko sama treść
+        Book book = bookService.getReadyBook(user.getUserId(), id);
+        if (isNotModified(webRequest, bookService.getContentTag(book))) {
+            return notModified();
+        }
+        BookContentStream content = bookService.openBookContent(book);
+        return ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(content::writeTo);
+    }
+
+    @Operation(summary = "Pobranie spisu treści", description = "Zwraca listę rozdziałów (indeks, tytuł, długość tekstu) bez ich treści")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Spis treści został pobrany pomyślnie"),
+            @ApiResponse(responseCode = "304", description = "Treść nie zmieniła się od ostatniego pobrania (If-None-Match)"),
+            @ApiResponse(responseCode = "401", description = "Brak autoryzacji"),
+            @ApiResponse(responseCode = "404", description = "Książka nie została znaleziona"),
+            @ApiResponse(responseCode = "409", description = "Książka jest jeszcze przetwarzana")
+    })
+    @GetMapping("/{id}/chapters")
+    public ResponseEntity<List<ChapterSummaryDto>> getTableOfContents(
+            @Parameter(description = "ID książki", required = true)
+            @PathVariable Long id,
+            @AuthenticationPrincipal AuthenticatedUser user,
+            WebRequest webRequest
+    ) {
+        Book book = bookService.getReadyBook(user.getUserId(), id);
+        if (isNotModified(webRequest, bookService.getContentTag(book))) {
+            return notModified();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .body(bookService.getTableOfContents(book));
+    }
+
+    @Operation(summary = "Pobranie pojedynczego rozdziału", description = "Zwraca treść jednego rozdziału (html + tekst) bez wczytywania reszty książki")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rozdział został pobrany pomyślnie",
+                    content = @Content(schema = @Schema(implementation = ChapterDto.class))),
+            @ApiResponse(responseCode = "304", description = "Treść nie zmieniła się od ostatniego pobrania (If-None-Match)"),
+            @ApiResponse(responseCode = "401", description = "Brak autoryzacji"),
+            @ApiResponse(responseCode = "404", description = "Książka lub rozdział nie zostały znalezione"),
+            @ApiResponse(responseCode = "409", description = "Książka jest jeszcze przetwarzana")
+    })
+    @GetMapping("/{id}/chapters/{index}")
+    public ResponseEntity<ChapterDto> getChapter(
+            @Parameter(description = "ID książki", required = true)
+            @PathVariable Long id,
+            @Parameter(description = "Indeks rozdziału (0-based)", required = true)
+            @PathVariable int index,
+            @AuthenticationPrincipal AuthenticatedUser user,
+            WebRequest webRequest
+    ) {
+        Book book = bookService.getReadyBook(user.getUserId(), id);
+        if (isNotModified(webRequest, bookService.getContentTag(book))) {
+            return notModified();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .body(bookService.getChapter(book, index));
+    }
+
+    @Operation(summary = "Pobranie oryginalnego pliku EPUB",
+            description = "Zwraca plik EPUB w takiej postaci, w jakiej został przesłany. "
+                    + "Obsługuje Range i If-Range, więc przerwane pobieranie można wznowić")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cały plik",
+                    content = @Content(mediaType = FileRangeResponder.EPUB_CONTENT_TYPE)),
+            @ApiResponse(responseCode = "206", description = "Fragment pliku z nagłówka Range",
+                    content = @Content(mediaType = FileRangeResponder.EPUB_CONTENT_TYPE)),
+            @ApiResponse(responseCode = "304", description = "Plik nie zmienił się od ostatniego pobrania (If-None-Match)"),
+            @ApiResponse(responseCode = "401", description = "Brak autoryzacji"),
+            @ApiResponse(responseCode = "404", description = "Książka lub jej plik nie zostały znalezione"),
+            @ApiResponse(responseCode = "416", description = "Zakres wykracza poza rozmiar pliku")
+    })
+    @GetMapping("/{id}/file")
+    public void downloadBookFile(
+            @Parameter(description = "ID książki", required = true)
+            @PathVariable Long id,
+            @AuthenticationPrincipal AuthenticatedUser user,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        Book book = bookService.getBookByIdAndUser(user.getUserId(), id);
+        // blob pod skrótem się nie zmienia, więc skrót jest gotowym silnym ETagiem
+        String etag = book.getContentSha256() != null ? "\"" + book.getContentSha256() + "\"" : null;
+        fileRangeResponder.send(Path.of(book.getFilePath()), etag, downloadFileName(book), request, response);
     }
 
     @Operation(summary = "Pobranie podglądu książki", description = "Zwraca krótki podgląd tekstowy zawartości książki")
@@ -123,16 +281,42 @@ public class BookController {
             @ApiResponse(responseCode = "200", description = "Podgląd książki został pobrany pomyślnie"),
             @ApiResponse(responseCode = "401", description = "Brak autoryzacji"),
             @ApiResponse(responseCode = "403", description = "Brak dostępu do tej książki"),
-            @ApiResponse(responseCode = "404", description = "Książka nie została znaleziona")
+            @ApiResponse(responseCode = "404", description = "Książka nie została znaleziona"),
+            @ApiResponse(responseCode = "409", description = "Książka jest jeszcze przetwarzana")
     })
     @GetMapping("/{id}/preview")
     public ResponseEntity<String> getBookPreview(
             @Parameter(description = "ID książki", required = true)
             @PathVariable Long id,
-            Authentication auth
+            @AuthenticationPrincipal AuthenticatedUser user
     ) {
-        User user = customUserDetailsService.findUserByUsernameOrEmail(auth.getName());
-        return ResponseEntity.ok(bookService.getBookPreview(user.getId(), id));
+        // podgląd liczony raz przy przetwarzaniu i potem się nie zmienia
+        return ResponseEntity.ok()
+                .cacheControl(PREVIEW_CACHE)
+                .body(bookService.getBookPreview(user.getUserId(), id));
+    }
+
+    @Operation(summary = "Pobranie podglądów wielu książek",
+            description = "Zwraca zapisane podglądy wskazanych książek z biblioteki (bez otwierania plików), "
+                    + "najwyżej " + MAX_PREVIEW_IDS + " w jednym zapytaniu")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Podglądy zostały pobrane pomyślnie"),
+            @ApiResponse(responseCode = "400", description = "Brak ID albo za dużo ID w jednym zapytaniu"),
+            @ApiResponse(responseCode = "401", description = "Brak autoryzacji")
+    })
+    @GetMapping("/previews")
+    public ResponseEntity<List<BookPreviewResponse>> getBookPreviews(
+            @Parameter(description = "ID książek, np. ids=1,2,3", required = true)
+            @RequestParam("ids") List<Long> ids,
+            @AuthenticationPrincipal AuthenticatedUser user
+    ) {
+        // lista ma odpowiadać widocznej stronie biblioteki, a nie całej kolekcji
+        if (ids.isEmpty() || ids.size() > MAX_PREVIEW_IDS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .body(bookService.getBookPreviews(user.getUserId(), ids));
     }
 
     @Operation(summary = "Usunięcie książki", description = "Usuwa książkę z biblioteki użytkownika")
@@ -146,10 +330,9 @@ public class BookController {
     public ResponseEntity<Void> deleteBook(
             @Parameter(description = "ID książki", required = true)
             @PathVariable Long id,
-            Authentication auth
+            @AuthenticationPrincipal AuthenticatedUser user
     ) {
-        User user = customUserDetailsService.findUserByUsernameOrEmail(auth.getName());
-        bookService.deleteBook(user.getId(), id);
+        bookService.deleteBook(user.getUserId(), id);
         return ResponseEntity.noContent().build();
     }
 
@@ -165,10 +348,9 @@ public class BookController {
     public ResponseEntity<BookProgressResponse> getProgress(
             @Parameter(description = "ID książki", required = true)
             @PathVariable Long id,
-            Authentication auth
+            @AuthenticationPrincipal AuthenticatedUser user
     ) {
-        User user = customUserDetailsService.findUserByUsernameOrEmail(auth.getName());
-        return ResponseEntity.ok(progressService.getProgress(user.getId(), id));
+        return ResponseEntity.ok(progressService.getProgress(user.getUserId(), id));
     }
 
     @Operation(summary = "Aktualizacja postępu czytania", description = "Zapisuje aktualny postęp czytania książki (numer rozdziału, pozycja itp.)")
@@ -184,11 +366,10 @@ public class BookController {
     public ResponseEntity<BookProgressResponse> updateProgress(
             @Parameter(description = "ID książki", required = true)
             @PathVariable Long id,
-            Authentication auth,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @RequestBody BookProgressRequest req
     ) {
-        User user = customUserDetailsService.findUserByUsernameOrEmail(auth.getName());
-        return ResponseEntity.ok(progressService.updateProgress(user.getId(), id, req));
+        return ResponseEntity.ok(progressService.updateProgress(user.getUserId(), id, req));
     }
 
     @Operation(summary = "Dodaj zakładkę do książki", description = "Tworzy nową zakładkę w określonym miejscu książki")
@@ -203,11 +384,10 @@ public class BookController {
     public ResponseEntity<BookmarkResponse> createBookmarkForBook(
             @Parameter(description = "ID książki", required = true)
             @PathVariable Long bookId,
-            Authentication auth,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @RequestBody BookmarkRequest request
     ) {
         log.info("Dodawanie zakładki: bookId={}, request={}", bookId, request);
-        User user = customUserDetailsService.findUserByUsernameOrEmail(auth.getName());
         request.setBookId(bookId);
         if (request.getChapterIndex() == null) {
             request.setChapterIndex(0);
@@ -216,7 +396,7 @@ public class BookController {
             request.setCharacterOffset(0);
         }
         log.info("Request po uzupełnieniu: {}", request);
-        BookmarkResponse response = bookmarkService.createBookmark(user.getId(), request);
+        BookmarkResponse response = bookmarkService.createBookmark(user.getUserId(), request);
         log.info("Zakładka utworzona: {}", response);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
@@ -230,10 +410,9 @@ public class BookController {
     public ResponseEntity<List<BookmarkResponse>> getBookmarksForBook(
             @Parameter(description = "ID książki", required = true)
             @PathVariable Long bookId,
-            Authentication auth
+            @AuthenticationPrincipal AuthenticatedUser user
     ) {
-        User user = customUserDetailsService.findUserByUsernameOrEmail(auth.getName());
-        List<BookmarkResponse> bookmarks = bookmarkService.getBookmarksForBook(user.getId(), bookId);
+        List<BookmarkResponse> bookmarks = bookmarkService.getBookmarksForBook(user.getUserId(), bookId);
         return ResponseEntity.ok(bookmarks);
     }
 
@@ -246,10 +425,9 @@ public class BookController {
     public ResponseEntity<Void> deleteAllBookmarksForBook(
             @Parameter(description = "ID książki", required = true)
             @PathVariable Long bookId,
-            Authentication auth
+            @AuthenticationPrincipal AuthenticatedUser user
     ) {
-        User user = customUserDetailsService.findUserByUsernameOrEmail(auth.getName());
-        bookmarkService.deleteAllBookmarksForBook(user.getId(), bookId);
+        bookmarkService.deleteAllBookmarksForBook(user.getUserId(), bookId);
         return ResponseEntity.noContent().build();
     }
 
@@ -265,10 +443,23 @@ public class BookController {
             @PathVariable Long bookId,
             @Parameter(description = "ID zakładki", required = true)
             @PathVariable Long bookmarkId,
-            Authentication auth
+            @AuthenticationPrincipal AuthenticatedUser user
     ) {
-        User user = customUserDetailsService.findUserByUsernameOrEmail(auth.getName());
-        bookmarkService.deleteBookmark(user.getId(), bookmarkId);
+        bookmarkService.deleteBookmark(user.getUserId(), bookmarkId);
         return ResponseEntity.noContent().build();
     }
+
+    private static String downloadFileName(Book book) {
+        String title = book.getTitle() != null ? book.getTitle().replaceAll("[\\\\/:*?\"<>|\\p{Cntrl}]", "_").trim() : "";
+        return (title.isEmpty() ? "book-" + book.getId() : title) + ".epub";
+    }
+
+    // checkNotModified sam ustawia nagłówek ETag (też przy 200) i porównuje go z If-None-Match
+    private static boolean isNotModified(WebRequest webRequest, String etag) {
+        return etag != null && webRequest.checkNotModified(etag);
+    }
+
+    private static <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+    }
 }
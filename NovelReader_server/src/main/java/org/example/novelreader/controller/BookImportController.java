@@ -0,0 +1,114 @@
+package org.example.novelreader.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.example.novelreader.dto.BatchUploadResult;
+import org.example.novelreader.dto.ImportDirectoryRequest;
+import org.example.novelreader.security.AuthenticatedUser;
+import org.example.novelreader.service.BookImportService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+// wyniki lecą jako NDJSON (linia na plik) w miarę zgłaszania kolejnych książek, a nie po całym imporcie
+@RestController
+@RequestMapping("/api/v1/books")
+@RequiredArgsConstructor
+@Tag(name = "Import książek", description = "Zgłaszanie wielu książek naraz")
+@SecurityRequirement(name = "bearerAuth")
+public class BookImportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final BookImportService bookImportService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${book.import.max-files-per-request}")
+    private int maxFilesPerRequest;
+
+    @Operation(summary = "Przesłanie wielu książek",
+            description = "Zapisuje pliki i zgłasza je do przetworzenia w tle z niższym priorytetem niż zwykły upload. "
+                    + "Odpowiedź to NDJSON - linia na plik z jobId albo błędem. Stan całej paczki: /api/v1/ingestion/batches/{batchId}")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Wyniki kolejnych plików",
+                    content = @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = BatchUploadResult.class))),
+            @ApiResponse(responseCode = "400", description = "Brak plików lub za dużo plików w jednym żądaniu"),
+            @ApiResponse(responseCode = "401", description = "Brak autoryzacji")
+    })
+    @PostMapping(value = "/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<StreamingResponseBody> uploadBatch(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @Parameter(description = "Pliki EPUB", required = true)
+            @RequestParam("files") List<MultipartFile> files
+    ) {
+        if (files.isEmpty() || files.size() > maxFilesPerRequest) {
+            return ResponseEntity.badRequest().build();
+        }
+        UUID batchId = UUID.randomUUID();
+        return streamResults(batchId, out -> bookImportService.importUploads(user.getUserId(), batchId, files, ndjsonLines(out)));
+    }
+
+    @Operation(summary = "Import katalogu z serwera",
+            description = "Importuje wszystkie pliki .epub z katalogu (rekurencyjnie) wewnątrz book.import.allowed-root. "
+                    + "Tylko dla administratorów z book.import.admins")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Wyniki kolejnych plików",
+                    content = @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = BatchUploadResult.class))),
+            @ApiResponse(responseCode = "401", description = "Brak autoryzacji"),
+            @ApiResponse(responseCode = "403", description = "Brak uprawnień lub katalog poza katalogiem importu"),
+            @ApiResponse(responseCode = "404", description = "Katalog nie istnieje")
+    })
+    @PostMapping("/import")
+    public ResponseEntity<StreamingResponseBody> importDirectory(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestBody ImportDirectoryRequest request
+    ) {
+        List<Path> files = bookImportService.resolveDirectory(user.getUsername(), request.getPath());
+        UUID batchId = UUID.randomUUID();
+        return streamResults(batchId, out -> bookImportService.importFiles(user.getUserId(), batchId, files, ndjsonLines(out)));
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamResults(UUID batchId, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .location(URI.create("/api/v1/ingestion/batches/" + batchId))
+                .contentType(NDJSON)
+                .body(body);
+    }
+
+    // klient mógł się rozłączyć - import idzie dalej, wyniki zostają pod /ingestion/batches/{batchId}
+    private Consumer<BatchUploadResult> ndjsonLines(OutputStream out) {
+        boolean[] open = {true};
+        return result -> {
+            if (!open[0]) {
+                return;
+            }
+            try {
+                out.write(objectMapper.writeValueAsBytes(result));
+                out.write('\n');
+                out.flush();
+            } catch (IOException e) {
+                open[0] = false;
+            }
+        };
+    }
+}
@@ -12,12 +12,11 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.example.novelreader.dto.BookmarkRequest;
 import org.example.novelreader.dto.BookmarkResponse;
-import org.example.novelreader.entity.User;
-import org.example.novelreader.security.CustomUserDetailsService;
+import org.example.novelreader.security.AuthenticatedUser;
 import org.example.novelreader.service.BookmarkService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -30,7 +29,6 @@ import java.util.List;
 public class BookmarkController {
 
     private final BookmarkService bookmarkService;
-    private final CustomUserDetailsService customUserDetailsService;
 
     @Operation(summary = "Utwórz nową zakładkę",
                description = "Tworzy zakładkę w określonym miejscu rozdziału. " +
@@ -44,11 +42,10 @@ public class BookmarkController {
     })
     @PostMapping
     public ResponseEntity<BookmarkResponse> createBookmark(
-            Authentication auth,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Valid @RequestBody BookmarkRequest request
     ) {
-        User user = customUserDetailsService.findUserByUsernameOrEmail(auth.getName());
-        BookmarkResponse response = bookmarkService.createBookmark(user.getId(), request);
+        BookmarkResponse response = bookmarkService.createBookmark(user.getUserId(), request);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
@@ -61,11 +58,10 @@ public class BookmarkController {
     })
     @GetMapping("/{bookmarkId}")
     public ResponseEntity<BookmarkResponse> getBookmark(
-            Authentication auth,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Parameter(description = "ID zakładki") @PathVariable Long bookmarkId
     ) {
-        User user = customUserDetailsService.findUserByUsernameOrEmail(auth.getName());
-        BookmarkResponse response = bookmarkService.getBookmark(user.getId(), bookmarkId);
+        BookmarkResponse response = bookmarkService.getBookmark(user.getUserId(), bookmarkId);
         return ResponseEntity.ok(response);
     }
 
@@ -76,9 +72,8 @@ public class BookmarkController {
             @ApiResponse(responseCode = "401", description = "Brak autoryzacji")
     })
     @GetMapping
-    public ResponseEntity<List<BookmarkResponse>> getAllUserBookmarks(Authentication auth) {
-        User user = customUserDetailsService.findUserByUsernameOrEmail(auth.getName());
-        List<BookmarkResponse> bookmarks = bookmarkService.getAllUserBookmarks(user.getId());
+    public ResponseEntity<List<BookmarkResponse>> getAllUserBookmarks(@AuthenticationPrincipal AuthenticatedUser user) {
+        List<BookmarkResponse> bookmarks = bookmarkService.getAllUserBookmarks(user.getUserId());
         return ResponseEntity.ok(bookmarks);
     }
 
@@ -91,11 +86,10 @@ public class BookmarkController {
     })
     @GetMapping("/book/{bookId}")
     public ResponseEntity<List<BookmarkResponse>> getBookmarksForBook(
-            Authentication auth,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Parameter(description = "ID książki") @PathVariable Long bookId
     ) {
-        User user = customUserDetailsService.findUserByUsernameOrEmail(auth.getName());
-        List<BookmarkResponse> bookmarks = bookmarkService.getBookmarksForBook(user.getId(), bookId);
+        List<BookmarkResponse> bookmarks = bookmarkService.getBookmarksForBook(user.getUserId(), bookId);
         return ResponseEntity.ok(bookmarks);
     }
 
@@ -109,12 +103,11 @@ public class BookmarkController {
     })
     @PutMapping("/{bookmarkId}")
     public ResponseEntity<BookmarkResponse> updateBookmark(
-            Authentication auth,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Parameter(description = "ID zakładki") @PathVariable Long bookmarkId,
             @Valid @RequestBody BookmarkRequest request
     ) {
-        User user = customUserDetailsService.findUserByUsernameOrEmail(auth.getName());
-        BookmarkResponse response = bookmarkService.updateBookmark(user.getId(), bookmarkId, request);
+        BookmarkResponse response = bookmarkService.updateBookmark(user.getUserId(), bookmarkId, request);
         return ResponseEntity.ok(response);
     }
 
@@ -126,11 +119,10 @@ public class BookmarkController {
     })
     @DeleteMapping("/{bookmarkId}")
     public ResponseEntity<Void> deleteBookmark(
-            Authentication auth,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Parameter(description = "ID zakładki") @PathVariable Long bookmarkId
     ) {
-        User user = customUserDetailsService.findUserByUsernameOrEmail(auth.getName());
-        bookmarkService.deleteBookmark(user.getId(), bookmarkId);
+        bookmarkService.deleteBookmark(user.getUserId(), bookmarkId);
         return ResponseEntity.noContent().build();
     }
 
@@ -142,11 +134,10 @@ public class BookmarkController {
     })
     @DeleteMapping("/book/{bookId}")
     public ResponseEntity<Void> deleteAllBookmarksForBook(
-            Authentication auth,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Parameter(description = "ID książki") @PathVariable Long bookId
     ) {
-        User user = customUserDetailsService.findUserByUsernameOrEmail(auth.getName());
-        bookmarkService.deleteAllBookmarksForBook(user.getId(), bookId);
+        bookmarkService.deleteAllBookmarksForBook(user.getUserId(), bookId);
         return ResponseEntity.noContent().build();
     }
 
@@ -158,13 +149,12 @@ public class BookmarkController {
     })
     @GetMapping("/exists")
     public ResponseEntity<Boolean> checkBookmarkExists(
-            Authentication auth,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Parameter(description = "ID książki") @RequestParam Long bookId,
             @Parameter(description = "Indeks rozdziału (0-based)") @RequestParam Integer chapterIndex,
             @Parameter(description = "Offset znakowy w rozdziale") @RequestParam Integer characterOffset
     ) {
-        User user = customUserDetailsService.findUserByUsernameOrEmail(auth.getName());
-        boolean exists = bookmarkService.bookmarkExists(user.getId(), bookId, chapterIndex, characterOffset);
+        boolean exists = bookmarkService.bookmarkExists(user.getUserId(), bookId, chapterIndex, characterOffset);
         return ResponseEntity.ok(exists);
     }
 }
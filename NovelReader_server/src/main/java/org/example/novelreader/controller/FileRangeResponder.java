@@ -0,0 +1,146 @@
+package org.example.novelreader.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.novelreader.exception.ResourceNotFoundException;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/*
+ * Wysyłanie pliku z dysku z obsługą Range / If-Range (wznawianie pobierania).
+ *
+ * Plik nigdy nie trafia na heap: jak Tomcat ma włączony sendfile, to tylko mówimy mu który kawałek
+ * którego pliku wysłać i jądro kopiuje go z page cache prosto do socketu. Bez sendfile (np. TLS,
+ * MockMvc) leci FileChannel.transferTo na strumień odpowiedzi - stały, mały bufor niezależnie od rozmiaru.
+ *
+ * Obsługujemy jeden zakres; przy kilku odsyłamy cały plik (RFC 9110 pozwala zignorować Range).
+ */
+@Component
+public class FileRangeResponder {
+
+    // atrybuty Tomcata (org.apache.catalina.Globals) - nie ciągniemy zależności od catalina dla 4 stringów
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    static final String EPUB_CONTENT_TYPE = "application/epub+zip";
+
+    // etag w cudzysłowach albo null - wtedy walidujemy tylko po dacie modyfikacji
+    public void send(Path file, @Nullable String etag, String fileName,
+                     HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long length;
+        long lastModified;
+        try {
+            length = Files.size(file);
+            lastModified = Files.getLastModifiedTime(file).toMillis();
+        } catch (NoSuchFileException e) {
+            throw new ResourceNotFoundException("Plik książki nie istnieje na serwerze");
+        }
+
+        // If-None-Match / If-Modified-Since / If-Match - ustawia też ETag i Last-Modified
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(EPUB_CONTENT_TYPE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(fileName, StandardCharsets.UTF_8).build().toString());
+
+        long start = 0;
+        long end = length - 1;
+        HttpRange range = requestedRange(request, etag, lastModified);
+        if (range != null) {
+            start = range.getRangeStart(length);
+            end = range.getRangeEnd(length);
+            if (start >= length || start > end) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setContentLength(0);
+                return;
+            }
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);  // Tomcat chce koniec wyłącznie
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    // plik skrócił się w trakcie - Content-Length już poszedł, więc tylko zrywamy odpowiedź
+                    throw new EOFException("File truncated during transfer: " + file);
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    // null = wysyłamy cały plik (brak Range, nieaktualny If-Range, zły nagłówek albo kilka zakresów)
+    @Nullable
+    private static HttpRange requestedRange(HttpServletRequest request, @Nullable String etag, long lastModified) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null || !ifRangeMatches(request, etag, lastModified)) {
+            return null;
+        }
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return ranges.size() == 1 ? ranges.get(0) : null;
+    }
+
+    // If-Range: zakres tylko gdy klient ma wciąż tę samą wersję pliku, inaczej dostaje całość od nowa
+    private static boolean ifRangeMatches(HttpServletRequest request, @Nullable String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // porównanie silne - słaby ETag nigdy nie pasuje
+            return etag != null && etag.equals(ifRange);
+        }
+        try {
+            long date = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return date / 1000 == lastModified / 1000;  // nagłówki HTTP mają sekundową dokładność
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.novelreader.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.example.novelreader.dto.IngestionJobResponse;
+import org.example.novelreader.security.AuthenticatedUser;
+import org.example.novelreader.service.IngestionService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/ingestion")
+@RequiredArgsConstructor
+@Tag(name = "Przetwarzanie", description = "Status przetwarzania przesłanych książek")
+@SecurityRequirement(name = "bearerAuth")
+public class IngestionController {
+
+    private final IngestionService ingestionService;
+
+    @Operation(summary = "Status przetwarzania", description = "Zwraca stan zadania zgłoszonego przy uploadzie książki")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Status zadania",
+                    content = @Content(schema = @Schema(implementation = IngestionJobResponse.class))),
+            @ApiResponse(responseCode = "401", description = "Brak autoryzacji"),
+            @ApiResponse(responseCode = "404", description = "Zadanie nie zostało znalezione")
+    })
+    @GetMapping("/{jobId}")
+    public ResponseEntity<IngestionJobResponse> getJob(
+            @Parameter(description = "ID zadania zwrócone przez upload", required = true)
+            @PathVariable UUID jobId,
+            @AuthenticationPrincipal AuthenticatedUser user
+    ) {
+        return ResponseEntity.ok(ingestionService.getJob(user.getUserId(), jobId));
+    }
+
+    @Operation(summary = "Status importu wsadowego", description = "Zwraca stan wszystkich zadań z jednego importu (batchId z odpowiedzi /books/batch)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Zadania z importu"),
+            @ApiResponse(responseCode = "401", description = "Brak autoryzacji"),
+            @ApiResponse(responseCode = "404", description = "Import nie został znaleziony")
+    })
+    @GetMapping("/batches/{batchId}")
+    public ResponseEntity<List<IngestionJobResponse>> getBatch(
+            @Parameter(description = "ID importu", required = true)
+            @PathVariable UUID batchId,
+            @AuthenticationPrincipal AuthenticatedUser user
+    ) {
+        return ResponseEntity.ok(ingestionService.getBatch(user.getUserId(), batchId));
+    }
+}
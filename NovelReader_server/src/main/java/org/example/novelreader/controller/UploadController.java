@@ -0,0 +1,132 @@
+package org.example.novelreader.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.example.novelreader.dto.CreateUploadSessionRequest;
+import org.example.novelreader.dto.StagedBookResponse;
+import org.example.novelreader.dto.UploadSessionResponse;
+import org.example.novelreader.security.AuthenticatedUser;
+import org.example.novelreader.service.UploadSessionService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/uploads")
+@RequiredArgsConstructor
+@Tag(name = "Upload w kawałkach", description = "Wznawialne przesyłanie dużych plików EPUB")
+@SecurityRequirement(name = "bearerAuth")
+public class UploadController {
+
+    private final UploadSessionService uploadSessionService;
+
+    @Operation(summary = "Rozpoczęcie uploadu",
+            description = "Tworzy sesję uploadu dla pliku o podanym rozmiarze. Odpowiedź zawiera rozmiar kawałka, którym trzeba wysyłać plik")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Sesja została utworzona",
+                    content = @Content(schema = @Schema(implementation = UploadSessionResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Nieprawidłowy rozmiar pliku"),
+            @ApiResponse(responseCode = "401", description = "Brak autoryzacji")
+    })
+    @PostMapping
+    public ResponseEntity<UploadSessionResponse> createSession(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestBody CreateUploadSessionRequest request
+    ) {
+        UploadSessionResponse session = uploadSessionService.create(user.getUserId(), request);
+        return ResponseEntity.created(URI.create("/api/v1/uploads/" + session.getUploadId())).body(session);
+    }
+
+    @Operation(summary = "Stan uploadu", description = "Zwraca offset, od którego trzeba wznowić wysyłanie")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stan sesji",
+                    content = @Content(schema = @Schema(implementation = UploadSessionResponse.class))),
+            @ApiResponse(responseCode = "401", description = "Brak autoryzacji"),
+            @ApiResponse(responseCode = "404", description = "Sesja nie istnieje lub wygasła")
+    })
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<UploadSessionResponse> getSession(
+            @Parameter(description = "ID sesji uploadu", required = true)
+            @PathVariable UUID uploadId,
+            @AuthenticationPrincipal AuthenticatedUser user
+    ) {
+        return ResponseEntity.ok(uploadSessionService.getSession(user.getUserId(), uploadId));
+    }
+
+    @Operation(summary = "Wysłanie kawałka pliku",
+            description = "Zapisuje surowe bajty kawałka pod podanym offsetem. Każdy kawałek poza ostatnim ma dokładnie chunkSize bajtów, "
+                    + "a nagłówek X-Chunk-Sha256 zawiera jego SHA-256 (hex)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Kawałek został zapisany",
+                    content = @Content(schema = @Schema(implementation = UploadSessionResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Zły rozmiar kawałka lub niezgodna suma kontrolna"),
+            @ApiResponse(responseCode = "401", description = "Brak autoryzacji"),
+            @ApiResponse(responseCode = "404", description = "Sesja nie istnieje lub wygasła"),
+            @ApiResponse(responseCode = "409", description = "Offset nie zgadza się ze stanem sesji - odpowiedź zawiera właściwy")
+    })
+    @PutMapping(value = "/{uploadId}/chunks", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<UploadSessionResponse> uploadChunk(
+            @Parameter(description = "ID sesji uploadu", required = true)
+            @PathVariable UUID uploadId,
+            @Parameter(description = "Offset pierwszego bajtu kawałka", required = true)
+            @RequestParam("offset") long offset,
+            @Parameter(description = "SHA-256 kawałka (hex)", required = true)
+            @RequestHeader(value = "X-Chunk-Sha256", required = false) String sha256,
+            @AuthenticationPrincipal AuthenticatedUser user,
+            HttpServletRequest request
+    ) throws IOException {
+        // ciało czytamy prosto ze strumienia requestu - kawałek idzie na dysk bez bufora w pamięci
+        return ResponseEntity.ok(uploadSessionService.appendChunk(user.getUserId(), uploadId, offset,
+                request.getInputStream(), request.getContentLengthLong(), sha256));
+    }
+
+    @Operation(summary = "Zakończenie uploadu",
+            description = "Składa plik i odkłada go jak /books/parse-metadata?stage=true. "
+                    + "Zwrócony token zatwierdza się przez /books/staged/{token}/commit")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Plik został odłożony do zatwierdzenia",
+                    content = @Content(schema = @Schema(implementation = StagedBookResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Plik nie jest poprawnym EPUB-em"),
+            @ApiResponse(responseCode = "401", description = "Brak autoryzacji"),
+            @ApiResponse(responseCode = "404", description = "Sesja nie istnieje, wygasła lub została już zakończona"),
+            @ApiResponse(responseCode = "409", description = "Brakuje jeszcze części pliku")
+    })
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<StagedBookResponse> completeUpload(
+            @Parameter(description = "ID sesji uploadu", required = true)
+            @PathVariable UUID uploadId,
+            @AuthenticationPrincipal AuthenticatedUser user
+    ) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(uploadSessionService.complete(user.getUserId(), uploadId));
+    }
+
+    @Operation(summary = "Przerwanie uploadu", description = "Usuwa sesję i wysłaną dotąd część pliku")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Sesja została usunięta"),
+            @ApiResponse(responseCode = "401", description = "Brak autoryzacji"),
+            @ApiResponse(responseCode = "404", description = "Sesja nie istnieje")
+    })
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<Void> abortUpload(
+            @Parameter(description = "ID sesji uploadu", required = true)
+            @PathVariable UUID uploadId,
+            @AuthenticationPrincipal AuthenticatedUser user
+    ) {
+        uploadSessionService.abort(user.getUserId(), uploadId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.novelreader.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.UUID;
+
+// jedna linia odpowiedzi importu wsadowego (NDJSON) - albo jobId, albo error
+@Getter
+@Builder
+public class BatchUploadResult {
+    private final String fileName;
+    private final UUID batchId;
+    private final UUID jobId;
+    private final Long bookId;
+    private final String error;
+}
@@ -0,0 +1,15 @@
+package org.example.novelreader.dto;
+
+import lombok.Data;
+import org.example.novelreader.entity.BookStatus;
+
+// parametry GET /api/v1/books - wszystkie opcjonalne
+@Data
+public class BookListRequest {
+    private String sort;  // title, author, uploadedAt (domyślnie), lastRead
+    private String direction;  // asc/desc, domyślnie desc dla dat i asc dla tekstu
+    private String after;  // nextCursor poprzedniej strony
+    private Integer limit;
+    private BookStatus status;
+    private String q;  // fragment tytułu albo autora
+}
@@ -0,0 +1,13 @@
+package org.example.novelreader.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@Builder
+public class BookPageResponse {
+    private final List<BookResponse> items;
+    private final String nextCursor;  // null = ostatnia strona
+}
@@ -0,0 +1,12 @@
+package org.example.novelreader.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// element odpowiedzi GET /books/previews - konstruktor pod projekcję JPQL
+@Getter
+@AllArgsConstructor
+public class BookPreviewResponse {
+    private final Long bookId;
+    private final String preview;
+}
@@ -2,6 +2,7 @@ package org.example.novelreader.dto;
 
 import lombok.Builder;
 import lombok.Getter;
+import org.example.novelreader.entity.BookStatus;
 
 import java.time.LocalDateTime;
 
@@ -13,4 +14,5 @@ public class BookResponse {
     private String author;
     private String description;
     private LocalDateTime uploadedAt;
+    private BookStatus status;
 }
@@ -0,0 +1,15 @@
+package org.example.novelreader.dto;
+
+
+import lombok.Builder;
+import lombok.Getter;
+
+
+// pozycja spisu treści - bez html/text, żeby otwarcie książki nie ciągnęło całej treści
+@Getter
+@Builder
+public class ChapterSummaryDto {
+    private final int index; // 0-based
+    private final String title;
+    private final int length; // długość tekstu rozdziału w znakach
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package org.example.novelreader.dto;
+
+import lombok.Data;
+
+// rozmiar całego pliku znany z góry - serwer na tej podstawie wie kiedy upload jest kompletny
+@Data
+public class CreateUploadSessionRequest {
+    private String fileName;
+    private Long totalSize;
+}
@@ -0,0 +1,9 @@
+package org.example.novelreader.dto;
+
+import lombok.Data;
+
+// ścieżka względem book.import.allowed-root
+@Data
+public class ImportDirectoryRequest {
+    private String path;
+}
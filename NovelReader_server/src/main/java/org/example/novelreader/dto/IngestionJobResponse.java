@@ -0,0 +1,22 @@
+package org.example.novelreader.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.example.novelreader.entity.IngestionJobStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Getter
+@Builder
+public class IngestionJobResponse {
+    private final UUID jobId;
+    private final Long bookId;
+    private final UUID batchId; // null dla zwykłego uploadu
+    private final IngestionJobStatus status;
+    private final int attempts;
+    private final String error; // ostatni błąd - przy QUEUED oznacza że czekamy na ponowną próbę
+    private final LocalDateTime createdAt;
+    private final LocalDateTime nextAttemptAt;
+    private final LocalDateTime finishedAt;
+}
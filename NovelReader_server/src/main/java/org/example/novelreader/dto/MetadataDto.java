@@ -13,4 +13,5 @@ public class MetadataDto {
     private final String language;
     private final String identifier;
     private final String description;
+    private final String coverHref; // ścieżka okładki w archiwum, null jak brak
 }
\ No newline at end of file
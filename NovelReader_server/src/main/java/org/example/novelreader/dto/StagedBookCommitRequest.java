@@ -0,0 +1,11 @@
+package org.example.novelreader.dto;
+
+import lombok.Data;
+
+// dane poprawione przez użytkownika w oknie metadanych - puste pola biorą wartość z pliku
+@Data
+public class StagedBookCommitRequest {
+    private String title;
+    private String author;
+    private String description;
+}
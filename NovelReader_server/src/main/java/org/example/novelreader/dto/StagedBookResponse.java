@@ -0,0 +1,16 @@
+package org.example.novelreader.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// odpowiedź /parse-metadata?stage=true - token zamiast ponownego wysyłania pliku przy zapisie
+@Getter
+@Builder
+public class StagedBookResponse {
+    private final UUID stagingToken;
+    private final LocalDateTime expiresAt;
+    private final MetadataDto metadata;
+}
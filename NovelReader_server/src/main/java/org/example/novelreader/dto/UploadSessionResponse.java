@@ -0,0 +1,20 @@
+package org.example.novelreader.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// offset = ile bajtów serwer ma już zapisane, od tego miejsca klient wysyła kolejny kawałek
+@Getter
+@Builder
+public class UploadSessionResponse {
+    private final UUID uploadId;
+    private final String fileName;
+    private final long totalSize;
+    private final int chunkSize;
+    private final long offset;
+    private final boolean complete;
+    private final LocalDateTime expiresAt;
+}
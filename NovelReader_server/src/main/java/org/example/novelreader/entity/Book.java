@@ -19,7 +19,8 @@ public class Book {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    // leniwie - do sprawdzenia właściciela wystarczy kolumna user_id (owner.id nie ładuje użytkownika)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User owner;
 
@@ -29,5 +30,15 @@ public class Book {
 
     private String filePath; // absolute path on disk
 
+    @Column(name = "content_sha256", length = 64)
+    private String contentSha256; // skrót pliku EPUB liczony przy uploadzie
+
+    private Long fileSize;
+
     private LocalDateTime uploadedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private BookStatus status = BookStatus.READY;
 }
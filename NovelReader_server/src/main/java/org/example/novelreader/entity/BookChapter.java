@@ -0,0 +1,30 @@
+package org.example.novelreader.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// spis treści książki zapisany przy uploadzie - żeby tytuł rozdziału nie wymagał parsowania EPUB-a
+@Entity
+@Table(name = "book_chapters")
+@IdClass(BookChapterId.class)
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookChapter {
+
+    @Id
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @Id
+    @Column(name = "chapter_index")
+    private Integer chapterIndex;
+
+    @Column(columnDefinition = "TEXT")
+    private String title;
+
+    @Column(nullable = false)
+    private Integer textLength;
+}
@@ -0,0 +1,19 @@
+package org.example.novelreader.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+// klucz złożony (book_id, chapter_index) - JPA wymaga osobnej klasy z equals/hashCode
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class BookChapterId implements Serializable {
+
+    private Long bookId;
+    private Integer chapterIndex;
+}
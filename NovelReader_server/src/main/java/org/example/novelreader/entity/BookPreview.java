@@ -0,0 +1,27 @@
+package org.example.novelreader.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// podgląd liczony raz przy przetwarzaniu - GET /preview nie otwiera już pliku z treścią
+@Entity
+@Table(name = "book_previews")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookPreview {
+
+    @Id
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String preview;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
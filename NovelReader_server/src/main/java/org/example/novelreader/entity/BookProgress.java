@@ -4,6 +4,8 @@ package org.example.novelreader.entity;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.LocalDateTime;
+
 
 @Entity
 @Table(name = "book_progress", uniqueConstraints = @UniqueConstraint(columnNames = {"book_id","user_id"}))
@@ -32,4 +34,7 @@ public class BookProgress {
 
     private Integer chapterIndex; // 0-based
     private Integer offsetInChapter; // optional character offset
+
+
+    private LocalDateTime updatedAt; // zapisywane paczkami przez ProgressWriteBuffer
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package org.example.novelreader.entity;
+
+// cykl życia książki po uploadzie - treść i spis rozdziałów powstają w tle
+public enum BookStatus {
+    PENDING,
+    PROCESSING,
+    READY,
+    FAILED
+}
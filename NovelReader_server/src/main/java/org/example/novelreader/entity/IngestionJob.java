@@ -0,0 +1,71 @@
+package org.example.novelreader.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// zadanie przetworzenia książki - trzymane w bazie, więc przeżywa restart i może je wziąć dowolna instancja
+@Entity
+@Table(name = "ingestion_jobs")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestionJob {
+
+    public static final int PRIORITY_INTERACTIVE = 0;
+    public static final int PRIORITY_BULK = 10;
+
+    @Id
+    private UUID id;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private IngestionJobStatus status;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer priority = PRIORITY_INTERACTIVE;
+
+    private UUID batchId; // null = zwykły upload
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(nullable = false)
+    private Integer maxAttempts;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 100)
+    private String lockedBy;
+
+    private LocalDateTime lockedAt;
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime finishedAt;
+
+    public boolean isBulk() {
+        return priority > PRIORITY_INTERACTIVE;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
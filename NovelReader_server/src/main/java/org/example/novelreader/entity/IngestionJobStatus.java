@@ -0,0 +1,9 @@
+package org.example.novelreader.entity;
+
+// QUEUED obejmuje też zadania czekające na ponowną próbę (next_attempt_at w przyszłości)
+public enum IngestionJobStatus {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    DEAD // wyczerpane próby - trzeba zajrzeć w last_error
+}
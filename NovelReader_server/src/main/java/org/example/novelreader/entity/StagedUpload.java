@@ -0,0 +1,45 @@
+package org.example.novelreader.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// przesłany plik + odczytane metadane, ważne do expiresAt - potem sprząta je BookStagingServiceImpl
+@Entity
+@Table(name = "staged_uploads")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StagedUpload {
+
+    @Id
+    private UUID token;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 1024)
+    private String filePath;
+
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    @Column(nullable = false)
+    private Long fileSize;
+
+    private String title;
+    private String author;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
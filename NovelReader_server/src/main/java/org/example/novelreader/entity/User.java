@@ -37,6 +37,11 @@ public class User {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // podbijany przy każdej zmianie listy książek (upload, usunięcie, zmiana statusu)
+    @Column(name = "library_version", nullable = false)
+    @Builder.Default
+    private Long libraryVersion = 0L;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
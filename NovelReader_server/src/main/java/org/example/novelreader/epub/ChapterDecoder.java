@@ -0,0 +1,79 @@
+package org.example.novelreader.epub;
+
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * Dekodowanie XHTML rozdziału według tego co plik sam deklaruje:
+ * BOM, potem encoding z deklaracji XML, potem <meta charset>.
+ * Bez deklaracji UTF-8 - tak każe specyfikacja EPUB, a nie kodowanie platformy serwera.
+ */
+public final class ChapterDecoder {
+
+    // deklaracje muszą być na samym początku pliku, dalej nie szukamy
+    private static final int SNIFF_LIMIT = 1024;
+
+    private static final Pattern XML_ENCODING =
+            Pattern.compile("<\\?xml[^>]*encoding\\s*=\\s*[\"']([A-Za-z0-9._:-]+)[\"']");
+    private static final Pattern META_CHARSET =
+            Pattern.compile("<meta[^>]*charset\\s*=\\s*[\"']?([A-Za-z0-9._:-]+)", Pattern.CASE_INSENSITIVE);
+
+    private ChapterDecoder() {
+    }
+
+    public static String decode(byte[] raw) {
+        if (startsWith(raw, 0xEF, 0xBB, 0xBF)) {
+            return new String(raw, 3, raw.length - 3, StandardCharsets.UTF_8);
+        }
+        if (startsWith(raw, 0xFE, 0xFF)) {
+            return new String(raw, 2, raw.length - 2, StandardCharsets.UTF_16BE);
+        }
+        if (startsWith(raw, 0xFF, 0xFE)) {
+            return new String(raw, 2, raw.length - 2, StandardCharsets.UTF_16LE);
+        }
+        return new String(raw, detectCharset(raw));
+    }
+
+    static Charset detectCharset(byte[] raw) {
+        // ASCII-kompatybilny podgląd wystarczy, żeby przeczytać samą deklarację
+        String head = new String(raw, 0, Math.min(raw.length, SNIFF_LIMIT), StandardCharsets.ISO_8859_1);
+
+        Matcher xml = XML_ENCODING.matcher(head);
+        if (xml.find()) {
+            return forName(xml.group(1));
+        }
+        Matcher meta = META_CHARSET.matcher(head);
+        if (meta.find()) {
+            return forName(meta.group(1));
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private static Charset forName(String name) {
+        try {
+            if (Charset.isSupported(name)) {
+                Charset charset = Charset.forName(name);
+                // skoro deklarację dało się przeczytać jako ASCII, to plik nie jest w UTF-16/32
+                return charset.name().startsWith("UTF-16") || charset.name().startsWith("UTF-32")
+                        ? StandardCharsets.UTF_8 : charset;
+            }
+        } catch (IllegalCharsetNameException ignored) {
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private static boolean startsWith(byte[] raw, int... prefix) {
+        if (raw.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if ((raw[i] & 0xFF) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.novelreader.epub;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// rozdział po zdekodowaniu: surowy XHTML, sam tekst i <title> (null gdy go nie ma)
+@Getter
+@AllArgsConstructor
+public class ChapterText {
+    private final String html;
+    private final String text;
+    private final String title;
+}
@@ -0,0 +1,9 @@
+package org.example.novelreader.epub;
+
+/*
+ * Zamiana bajtów rozdziału na tekst do czytnika i tytuł.
+ * Implementację wybiera epub.text-extractor (jsoup | streaming).
+ */
+public interface ChapterTextExtractor {
+    ChapterText extract(byte[] raw);
+}
@@ -0,0 +1,272 @@
+package org.example.novelreader.epub;
+
+import org.example.novelreader.dto.MetadataDto;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/*
+ * Dostęp do EPUB-a bez wczytywania całego archiwum do pamięci.
+ * ZipFile czyta central directory raz przy otwarciu i potem skacze prosto do wpisu,
+ * więc rozpakowujemy tylko container.xml, OPF i ten rozdział o który ktoś prosi.
+ * Wcześniej epublib inflatował wszystkie zasoby (obrazki też) zanim dotknęliśmy spine.
+ */
+public class EpubArchive implements Closeable {
+
+    private static final String CONTAINER_PATH = "META-INF/container.xml";
+
+    private final ZipFile zip;
+    private final MetadataDto metadata;
+    private final List<String> spine;
+
+    private EpubArchive(ZipFile zip, MetadataDto metadata, List<String> spine) {
+        this.zip = zip;
+        this.metadata = metadata;
+        this.spine = spine;
+    }
+
+    public static EpubArchive open(Path path) throws IOException {
+        ZipFile zip = new ZipFile(path.toFile());
+        try {
+            String opfPath = readRootfilePath(zip);
+            PackageDocument opf = readPackageDocument(zip, opfPath, false);
+            return new EpubArchive(zip, opf.metadata, opf.spine);
+        } catch (IOException | RuntimeException e) {
+            zip.close();
+            throw e;
+        }
+    }
+
+    // szybka ścieżka dla okna uploadu - czytamy OPF tylko do końca manifestu (tam siedzi okładka),
+    // spine i rozdziały w ogóle nas nie obchodzą
+    public static MetadataDto readMetadata(Path path) throws IOException {
+        try (ZipFile zip = new ZipFile(path.toFile())) {
+            String opfPath = readRootfilePath(zip);
+            return readPackageDocument(zip, opfPath, true).metadata;
+        }
+    }
+
+    public MetadataDto getMetadata() {
+        return metadata;
+    }
+
+    public int getSpineSize() {
+        return spine.size();
+    }
+
+    public String getSpineHref(int index) {
+        return spine.get(Objects.checkIndex(index, spine.size()));
+    }
+
+    public byte[] readSpineItem(int index) throws IOException {
+        String name = getSpineHref(index);
+        ZipEntry entry = zip.getEntry(name);
+        if (entry == null) {
+            throw new IOException("Spine item not found in archive: " + name);
+        }
+        try (InputStream in = zip.getInputStream(entry)) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        zip.close();
+    }
+
+    private static String readRootfilePath(ZipFile zip) throws IOException {
+        try (InputStream in = openEntry(zip, CONTAINER_PATH)) {
+            XMLStreamReader xml = createReader(in);
+            try {
+                while (xml.hasNext()) {
+                    if (xml.next() == XMLStreamConstants.START_ELEMENT && "rootfile".equals(xml.getLocalName())) {
+                        String fullPath = xml.getAttributeValue(null, "full-path");
+                        if (fullPath != null && !fullPath.isBlank()) {
+                            return fullPath;
+                        }
+                    }
+                }
+            } finally {
+                xml.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid " + CONTAINER_PATH, e);
+        }
+        throw new IOException("No rootfile in " + CONTAINER_PATH);
+    }
+
+    private static PackageDocument readPackageDocument(ZipFile zip, String opfPath, boolean metadataOnly) throws IOException {
+        String baseDir = opfPath.contains("/") ? opfPath.substring(0, opfPath.lastIndexOf('/') + 1) : "";
+
+        String title = null;
+        String author = null;
+        String language = null;
+        String identifier = null;
+        String description = null;
+        String coverId = null;
+        String coverHref = null;
+        Map<String, String> manifest = new HashMap<>();
+        List<String> spineIds = new ArrayList<>();
+
+        try (InputStream in = openEntry(zip, opfPath)) {
+            XMLStreamReader xml = createReader(in);
+            try {
+                String section = null;
+                while (xml.hasNext()) {
+                    int event = xml.next();
+                    if (metadataOnly && event == XMLStreamConstants.END_ELEMENT && "manifest".equals(xml.getLocalName())) {
+                        break;
+                    }
+                    if (event != XMLStreamConstants.START_ELEMENT) {
+                        continue;
+                    }
+                    String name = xml.getLocalName();
+                    switch (name) {
+                        case "metadata", "manifest", "spine" -> section = name;
+                        default -> {
+                        }
+                    }
+                    if (metadataOnly && "spine".equals(section)) {
+                        break;
+                    }
+
+                    if ("metadata".equals(section)) {
+                        switch (name) {
+                            case "title" -> title = firstNonBlank(title, xml);
+                            case "creator" -> author = firstNonBlank(author, xml);
+                            case "language" -> language = firstNonBlank(language, xml);
+                            case "identifier" -> identifier = firstNonBlank(identifier, xml);
+                            case "description" -> description = firstNonBlank(description, xml);
+                            case "meta" -> {
+                                // EPUB 2: <meta name="cover" content="id-z-manifestu"/>
+                                if ("cover".equals(xml.getAttributeValue(null, "name"))) {
+                                    coverId = xml.getAttributeValue(null, "content");
+                                }
+                            }
+                            default -> {
+                            }
+                        }
+                    } else if ("manifest".equals(section) && "item".equals(name)) {
+                        String id = xml.getAttributeValue(null, "id");
+                        String href = xml.getAttributeValue(null, "href");
+                        if (id != null && href != null) {
+                            manifest.put(id, resolve(baseDir, href));
+                            // EPUB 3: <item properties="cover-image" .../>
+                            String properties = xml.getAttributeValue(null, "properties");
+                            if (coverHref == null && properties != null
+                                    && List.of(properties.split("\\s+")).contains("cover-image")) {
+                                coverHref = manifest.get(id);
+                            }
+                        }
+                    } else if ("spine".equals(section) && "itemref".equals(name)) {
+                        String idref = xml.getAttributeValue(null, "idref");
+                        if (idref != null) {
+                            spineIds.add(idref);
+                        }
+                    }
+                }
+            } finally {
+                xml.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid package document " + opfPath, e);
+        }
+
+        List<String> spine = new ArrayList<>(spineIds.size());
+        for (String idref : spineIds) {
+            String href = manifest.get(idref);
+            if (href != null) {
+                spine.add(href);
+            }
+        }
+
+        if (coverHref == null && coverId != null) {
+            coverHref = manifest.get(coverId);
+        }
+
+        MetadataDto metadata = MetadataDto.builder()
+                .title(title)
+                .author(author)
+                .language(language)
+                .identifier(identifier)
+                .description(description)
+                .coverHref(coverHref)
+                .build();
+
+        return new PackageDocument(metadata, Collections.unmodifiableList(spine));
+    }
+
+    private static String firstNonBlank(String current, XMLStreamReader xml) throws XMLStreamException {
+        String text = xml.getElementText().trim();
+        if (current != null || text.isEmpty()) {
+            return current;
+        }
+        return text;
+    }
+
+    private static InputStream openEntry(ZipFile zip, String name) throws IOException {
+        ZipEntry entry = zip.getEntry(name);
+        if (entry == null) {
+            throw new IOException("Missing " + name + " in EPUB archive");
+        }
+        return zip.getInputStream(entry);
+    }
+
+    private static XMLStreamReader createReader(InputStream in) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        // OPF i container.xml nie potrzebują DTD, a wyłączone DTD to brak XXE
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory.createXMLStreamReader(in);
+    }
+
+    // href w OPF jest względny do katalogu OPF i może być zakodowany jak URL (np. %20)
+    static String resolve(String baseDir, String href) {
+        int fragment = href.indexOf('#');
+        if (fragment >= 0) {
+            href = href.substring(0, fragment);
+        }
+        String decoded = URLDecoder.decode(href.replace("+", "%2B"), StandardCharsets.UTF_8);
+
+        Deque<String> segments = new ArrayDeque<>();
+        for (String segment : (baseDir + decoded).split("/")) {
+            if (segment.isEmpty() || ".".equals(segment)) {
+                continue;
+            }
+            if ("..".equals(segment)) {
+                segments.pollLast();
+            } else {
+                segments.addLast(segment);
+            }
+        }
+        return String.join("/", segments);
+    }
+
+    private static final class PackageDocument {
+        private final MetadataDto metadata;
+        private final List<String> spine;
+
+        private PackageDocument(MetadataDto metadata, List<String> spine) {
+            this.metadata = metadata;
+            this.spine = spine;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.novelreader.epub;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// pełne drzewo DOM - wolniej, ale jsoup poprawia każdy zepsuty HTML tak samo jak przeglądarka
+@Component
+@ConditionalOnProperty(name = "epub.text-extractor", havingValue = "jsoup", matchIfMissing = true)
+public class JsoupChapterTextExtractor implements ChapterTextExtractor {
+
+    @Override
+    public ChapterText extract(byte[] raw) {
+        String html = ChapterDecoder.decode(raw);
+        Document doc = Jsoup.parse(html);
+        Element title = doc.selectFirst("title");
+        return new ChapterText(html, doc.text(), title != null ? title.text() : null);
+    }
+}
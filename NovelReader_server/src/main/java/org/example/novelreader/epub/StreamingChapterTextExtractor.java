@@ -0,0 +1,463 @@
+package org.example.novelreader.epub;
+
+import org.jsoup.nodes.Entities;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/*
+ * Tekst rozdziału w jednym przejściu po znakach, bez budowania drzewa DOM.
+ * Odwzorowuje Document.text() z jsoupa: białe znaki zwijane do jednej spacji, spacja przed
+ * elementem blokowym i <br>, po zamknięciu bloku gdy dalej idzie tekst, <pre>/<title> bez zmian,
+ * treść <script>/<style> i komentarze pomijane. Nie naprawia HTML-a tak jak parser jsoupa
+ * (np. foster-parenting w tabelach) - dla typowych rozdziałów XHTML wynik jest ten sam,
+ * co sprawdza StreamingChapterTextExtractorTest.
+ */
+@Component
+@ConditionalOnProperty(name = "epub.text-extractor", havingValue = "streaming")
+public class StreamingChapterTextExtractor implements ChapterTextExtractor {
+
+    // te same listy co org.jsoup.parser.Tag
+    private static final Set<String> BLOCK_TAGS = Set.of(
+            "html", "head", "body", "frameset", "script", "noscript", "style", "meta", "link", "title",
+            "frame", "noframes", "section", "nav", "aside", "hgroup", "header", "footer", "p",
+            "h1", "h2", "h3", "h4", "h5", "h6", "ul", "ol", "pre", "div", "blockquote", "hr",
+            "address", "figure", "figcaption", "form", "fieldset", "ins", "del", "dl", "dt", "dd",
+            "li", "table", "caption", "thead", "tfoot", "tbody", "colgroup", "col", "tr", "th", "td",
+            "video", "audio", "canvas", "details", "menu", "plaintext", "template", "article", "main",
+            "svg", "math", "center", "dir", "applet", "marquee", "listing");
+    private static final Set<String> VOID_TAGS = Set.of(
+            "meta", "link", "base", "frame", "img", "br", "wbr", "embed", "hr", "input", "keygen",
+            "col", "command", "device", "area", "basefont", "bgsound", "menuitem", "param", "source", "track");
+    private static final Set<String> PRESERVE_WHITESPACE_TAGS = Set.of("pre", "plaintext", "title", "textarea");
+    // otwarcie któregoś z nich zamyka otwarty <p> (reguła "close a p element" z parsera HTML)
+    private static final Set<String> CLOSES_P_TAGS = Set.of(
+            "address", "article", "aside", "blockquote", "center", "details", "dialog", "dir", "div", "dl",
+            "fieldset", "figcaption", "figure", "footer", "header", "hgroup", "main", "menu", "nav", "ol",
+            "p", "section", "summary", "ul", "h1", "h2", "h3", "h4", "h5", "h6", "pre", "listing", "form",
+            "table", "hr", "li", "dd", "dt");
+    private static final Set<String> SCOPE_BOUNDARY_TAGS = Set.of(
+            "applet", "caption", "html", "table", "td", "th", "marquee", "object", "template", "button");
+
+    // numeryczne encje z zakresu 0x80-0x9F przeglądarki (i jsoup) czytają jako windows-1252
+    private static final int[] WIN1252_EXTENSIONS = {
+            0x20AC, 0x0081, 0x201A, 0x0192, 0x201E, 0x2026, 0x2020, 0x2021,
+            0x02C6, 0x2030, 0x0160, 0x2039, 0x0152, 0x008D, 0x017D, 0x008F,
+            0x0090, 0x2018, 0x2019, 0x201C, 0x201D, 0x2022, 0x2013, 0x2014,
+            0x02DC, 0x2122, 0x0161, 0x203A, 0x0153, 0x009D, 0x017E, 0x0178};
+
+    @Override
+    public ChapterText extract(byte[] raw) {
+        String html = ChapterDecoder.decode(raw);
+        Scanner scanner = new Scanner(html);
+        scanner.run();
+        return new ChapterText(html, scanner.text.toString().trim(), scanner.title);
+    }
+
+    private static final class Scanner {
+        private final String html;
+        private final StringBuilder text;
+        private final List<String> open = new ArrayList<>();
+        private final StringBuilder entity = new StringBuilder(8);
+        private int pos;
+        private int preserveDepth;
+        private boolean blockJustClosed;  // następny węzeł tekstowy dostaje spację z przodu
+        private String title;
+
+        // stan bieżącego węzła tekstowego
+        private boolean preserving;
+        private boolean lastWasWhite;
+        private boolean reachedNonWhite;
+        private boolean stripLeading;
+
+        private Scanner(String html) {
+            this.html = html;
+            // tekst to zwykle mniej niż połowa XHTML-a, oszczędzamy kopiowania przy rozroście
+            this.text = new StringBuilder(html.length() / 2);
+        }
+
+        private void run() {
+            int length = html.length();
+            while (pos < length) {
+                int lt = html.indexOf('<', pos);
+                if (lt < 0) {
+                    appendSource(pos, length);
+                    return;
+                }
+                if (lt > pos) {
+                    appendSource(pos, lt);
+                }
+                pos = lt;
+                readMarkup();
+            }
+        }
+
+        private void readMarkup() {
+            int next = pos + 1;
+            if (next >= html.length()) {
+                appendText("<");
+                pos = next;
+                return;
+            }
+
+            char c = html.charAt(next);
+            if (c == '!') {
+                readDeclaration();
+            } else if (c == '?') {
+                // instrukcja przetwarzania (<?xml ...?>) - dla parsera HTML to komentarz
+                skipPast(">");
+                blockJustClosed = false;
+            } else if (c == '/') {
+                if (next + 1 < html.length() && isAsciiLetter(html.charAt(next + 1))) {
+                    pos = next + 1;
+                    String name = readTagName();
+                    skipPast(">");
+                    endTag(name);
+                } else {
+                    skipPast(">");
+                }
+            } else if (isAsciiLetter(c)) {
+                pos = next;
+                String name = readTagName();
+                boolean selfClosing = skipAttributes();
+                startTag(name, selfClosing);
+            } else {
+                appendText("<");
+                pos = next;
+            }
+        }
+
+        private void readDeclaration() {
+            if (html.startsWith("<!--", pos)) {
+                pos += 4;
+                skipPast("-->");
+                blockJustClosed = false;
+            } else if (html.startsWith("<![CDATA[", pos)) {
+                int start = pos + 9;
+                int end = html.indexOf("]]>", start);
+                int contentEnd = end < 0 ? html.length() : end;
+                pos = end < 0 ? html.length() : end + 3;
+                // jsoup wkleja CDATA bez zwijania białych znaków
+                appendText(html.substring(start, contentEnd), true);
+            } else {
+                // <!DOCTYPE ...> i inne deklaracje
+                skipPast(">");
+                blockJustClosed = false;
+            }
+        }
+
+        private void startTag(String name, boolean selfClosing) {
+            blockJustClosed = false;
+            if (CLOSES_P_TAGS.contains(name)) {
+                closeInScope("p");
+            }
+            if (name.equals("li")) {
+                closeInScope("li");
+            } else if (name.equals("dd") || name.equals("dt")) {
+                closeInScope("dd");
+                closeInScope("dt");
+            }
+            boolean block = BLOCK_TAGS.contains(name);
+            if (text.length() > 0 && (block || name.equals("br")) && !lastCharIsSpace()) {
+                text.append(' ');
+            }
+
+            if (VOID_TAGS.contains(name) || selfClosing) {
+                blockJustClosed = block;
+                return;
+            }
+
+            switch (name) {
+                case "script", "style" -> {
+                    skipRawContent(name);
+                    blockJustClosed = true;
+                }
+                case "title", "textarea" -> {
+                    String content = readRawContent(name);
+                    if (name.equals("title") && title == null) {
+                        title = content.trim();
+                    }
+                    appendText(content, true);
+                    blockJustClosed = block;
+                }
+                default -> {
+                    open.add(name);
+                    if (PRESERVE_WHITESPACE_TAGS.contains(name)) {
+                        preserveDepth++;
+                    }
+                    // pierwszy znak nowej linii zaraz po <pre> nie należy do treści
+                    if ((name.equals("pre") || name.equals("listing")) && pos < html.length() && html.charAt(pos) == '\n') {
+                        pos++;
+                    }
+                }
+            }
+        }
+
+        private void endTag(String name) {
+            int index = open.lastIndexOf(name);
+            if (index < 0) {
+                // parser HTML zamienia osierocone </br> i </p> na puste elementy
+                if (name.equals("br") || name.equals("p")) {
+                    startTag(name, true);
+                }
+                return;
+            }
+            popTo(index);
+            blockJustClosed = BLOCK_TAGS.contains(name);
+        }
+
+        private void closeInScope(String name) {
+            for (int i = open.size() - 1; i >= 0; i--) {
+                String element = open.get(i);
+                if (element.equals(name)) {
+                    popTo(i);
+                    return;
+                }
+                if (SCOPE_BOUNDARY_TAGS.contains(element)) {
+                    return;
+                }
+            }
+        }
+
+        private void popTo(int index) {
+            for (int i = open.size() - 1; i >= index; i--) {
+                if (PRESERVE_WHITESPACE_TAGS.contains(open.remove(i))) {
+                    preserveDepth--;
+                }
+            }
+        }
+
+        // tekst między znacznikami idzie prosto ze źródła do wyniku, encje dekodujemy w locie
+        private void appendSource(int start, int end) {
+            if (start >= end) {
+                return;
+            }
+            beginTextNode(preserveDepth > 0);
+            int i = start;
+            while (i < end) {
+                char c = html.charAt(i);
+                if (c == '&') {
+                    int consumed = decodeEntity(i, end);
+                    if (consumed > 0) {
+                        for (int k = 0; k < entity.length(); k++) {
+                            emit(entity.charAt(k));
+                        }
+                        i += consumed;
+                        continue;
+                    }
+                }
+                emit(c);
+                i++;
+            }
+        }
+
+        private void appendText(String value) {
+            appendText(value, preserveDepth > 0);
+        }
+
+        private void appendText(String value, boolean preserveWhitespace) {
+            if (value.isEmpty()) {
+                return;
+            }
+            beginTextNode(preserveWhitespace);
+            for (int i = 0; i < value.length(); i++) {
+                emit(value.charAt(i));
+            }
+        }
+
+        private void beginTextNode(boolean preserveWhitespace) {
+            if (blockJustClosed && !lastCharIsSpace()) {
+                text.append(' ');
+            }
+            blockJustClosed = false;
+            preserving = preserveWhitespace;
+            lastWasWhite = false;
+            reachedNonWhite = false;
+            stripLeading = lastCharIsSpace();
+        }
+
+        // jak StringUtil.appendNormalisedWhitespace w jsoupie; wszystkie sprawdzane znaki są w BMP,
+        // więc pary surogatów można przepisywać znak po znaku
+        private void emit(char c) {
+            if (preserving) {
+                text.append(c);
+            } else if (isActuallyWhitespace(c)) {
+                if ((stripLeading && !reachedNonWhite) || lastWasWhite) {
+                    return;
+                }
+                text.append(' ');
+                lastWasWhite = true;
+            } else if (c != '\u200B' && c != '\u00AD') {  // zero-width space i miękki dywiz znikają
+                text.append(c);
+                lastWasWhite = false;
+                reachedNonWhite = true;
+            }
+        }
+
+        private String readRawContent(String name) {
+            int end = findEndTag(name);
+            String content = decodeEntities(pos, end);
+            pos = end;
+            skipPast(">");
+            return content;
+        }
+
+        private void skipRawContent(String name) {
+            pos = findEndTag(name);
+            skipPast(">");
+        }
+
+        private int findEndTag(String name) {
+            int from = pos;
+            while (true) {
+                int lt = html.indexOf("</", from);
+                if (lt < 0) {
+                    return html.length();
+                }
+                if (html.regionMatches(true, lt + 2, name, 0, name.length())) {
+                    int after = lt + 2 + name.length();
+                    if (after >= html.length() || isTagNameEnd(html.charAt(after))) {
+                        return lt;
+                    }
+                }
+                from = lt + 2;
+            }
+        }
+
+        private String readTagName() {
+            int start = pos;
+            while (pos < html.length() && !isTagNameEnd(html.charAt(pos))) {
+                pos++;
+            }
+            return html.substring(start, pos).toLowerCase(Locale.ROOT);
+        }
+
+        // zwraca true dla <tag ... />
+        private boolean skipAttributes() {
+            boolean selfClosing = false;
+            while (pos < html.length()) {
+                char c = html.charAt(pos);
+                if (c == '>') {
+                    pos++;
+                    return selfClosing;
+                }
+                if (c == '"' || c == '\'') {
+                    int close = html.indexOf(c, pos + 1);
+                    pos = close < 0 ? html.length() : close + 1;
+                    selfClosing = false;
+                    continue;
+                }
+                selfClosing = c == '/';
+                pos++;
+            }
+            return selfClosing;
+        }
+
+        private void skipPast(String terminator) {
+            int end = html.indexOf(terminator, pos);
+            pos = end < 0 ? html.length() : end + terminator.length();
+        }
+
+        private String decodeEntities(int start, int end) {
+            StringBuilder out = new StringBuilder(end - start);
+            int i = start;
+            while (i < end) {
+                char c = html.charAt(i);
+                int consumed = c == '&' ? decodeEntity(i, end) : 0;
+                if (consumed > 0) {
+                    out.append(entity);
+                    i += consumed;
+                } else {
+                    out.append(c);
+                    i++;
+                }
+            }
+            return out.toString();
+        }
+
+        // zdekodowana encja ląduje w polu entity; 0 = to nie encja, '&' zostaje dosłownie
+        private int decodeEntity(int amp, int end) {
+            entity.setLength(0);
+            return amp + 1 < end && html.charAt(amp + 1) == '#'
+                    ? decodeNumeric(amp, end, entity)
+                    : decodeNamed(amp, end, entity);
+        }
+
+        private int decodeNumeric(int amp, int end, StringBuilder out) {
+            int i = amp + 2;
+            boolean hex = i < end && (html.charAt(i) == 'x' || html.charAt(i) == 'X');
+            if (hex) {
+                i++;
+            }
+            int digitsStart = i;
+            while (i < end && Character.digit(html.charAt(i), hex ? 16 : 10) >= 0) {
+                i++;
+            }
+            if (i == digitsStart) {
+                return 0;
+            }
+
+            int codePoint;
+            try {
+                codePoint = Integer.parseInt(html.substring(digitsStart, i), hex ? 16 : 10);
+            } catch (NumberFormatException e) {
+                codePoint = -1;
+            }
+            if (i < end && html.charAt(i) == ';') {
+                i++;
+            }
+
+            if (codePoint < 0 || (codePoint >= 0xD800 && codePoint <= 0xDFFF) || codePoint > 0x10FFFF) {
+                out.append('\uFFFD');
+            } else {
+                if (codePoint >= 0x80 && codePoint < 0x80 + WIN1252_EXTENSIONS.length) {
+                    codePoint = WIN1252_EXTENSIONS[codePoint - 0x80];
+                }
+                out.appendCodePoint(codePoint);
+            }
+            return i - amp;
+        }
+
+        private int decodeNamed(int amp, int end, StringBuilder out) {
+            int i = amp + 1;
+            while (i < end && isAsciiLetter(html.charAt(i))) {
+                i++;
+            }
+            while (i < end && Character.isDigit(html.charAt(i))) {
+                i++;
+            }
+            if (i == amp + 1) {
+                return 0;
+            }
+
+            String name = html.substring(amp + 1, i);
+            boolean terminated = i < end && html.charAt(i) == ';';
+            // bez średnika jsoup rozpoznaje tylko podstawowe encje (&amp, &nbsp, ...)
+            if (!Entities.isBaseNamedEntity(name) && !(terminated && Entities.isNamedEntity(name))) {
+                return 0;
+            }
+            out.append(Entities.getByName(name));
+            return i - amp + (terminated ? 1 : 0);
+        }
+
+        private boolean lastCharIsSpace() {
+            return text.length() != 0 && text.charAt(text.length() - 1) == ' ';
+        }
+
+        private static boolean isActuallyWhitespace(char c) {
+            return c == ' ' || c == '\t' || c == '\n' || c == '\f' || c == '\r' || c == 160;
+        }
+
+        private static boolean isTagNameEnd(char c) {
+            return c == '>' || c == '/' || Character.isWhitespace(c);
+        }
+
+        private static boolean isAsciiLetter(char c) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package org.example.novelreader.exception;
+
+public class BookNotReadyException extends RuntimeException {
+
+    public BookNotReadyException(Long bookId, String status) {
+        super("Książka o ID " + bookId + " nie jest gotowa do czytania (status: " + status + ")");
+    }
+}
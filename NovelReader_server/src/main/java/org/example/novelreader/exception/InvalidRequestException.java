@@ -0,0 +1,9 @@
+package org.example.novelreader.exception;
+
+// parametry zapytania, których nie da się zinterpretować (np. kursor z innym sortowaniem) - 400
+public class InvalidRequestException extends RuntimeException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
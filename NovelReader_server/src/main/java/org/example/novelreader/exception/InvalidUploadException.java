@@ -0,0 +1,13 @@
+package org.example.novelreader.exception;
+
+// zły rozmiar pliku/kawałka, niezgodna suma kontrolna albo plik, który nie jest EPUB-em - z odrzuconego uploadu nic nie zostaje na dysku
+public class InvalidUploadException extends RuntimeException {
+
+    public InvalidUploadException(String message) {
+        super(message);
+    }
+
+    public InvalidUploadException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
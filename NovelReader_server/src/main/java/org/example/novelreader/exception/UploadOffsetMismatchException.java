@@ -0,0 +1,19 @@
+package org.example.novelreader.exception;
+
+import lombok.Getter;
+
+// serwer ma zapisane inne expectedOffset bajtów niż zakłada klient - wznawia od tego miejsca
+@Getter
+public class UploadOffsetMismatchException extends RuntimeException {
+
+    private final long expectedOffset;
+
+    public UploadOffsetMismatchException(long expectedOffset, long actualOffset) {
+        this("Nieprawidłowy offset kawałka: " + actualOffset + ", oczekiwano " + expectedOffset, expectedOffset);
+    }
+
+    public UploadOffsetMismatchException(String message, long expectedOffset) {
+        super(message);
+        this.expectedOffset = expectedOffset;
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.novelreader.repository;
+
+import org.example.novelreader.entity.BookBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface BookBlobRepository extends JpaRepository<BookBlob, String> {
+
+    // upsert zakłada blokadę na wierszu do końca transakcji - równoległe usunięcie ostatniej referencji czeka
+    @Modifying
+    @Query(value = "INSERT INTO book_blobs (sha256, file_path, file_size, ref_count, created_at) " +
+            "VALUES (:sha256, :filePath, :fileSize, 1, now()) " +
+            "ON CONFLICT (sha256) DO UPDATE SET ref_count = book_blobs.ref_count + 1", nativeQuery = true)
+    void acquire(@Param("sha256") String sha256, @Param("filePath") String filePath, @Param("fileSize") long fileSize);
+
+    // blokada na sam skrót, także gdy wiersza jeszcze (albo już) nie ma - trzyma do końca transakcji
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext(:sha256))", nativeQuery = true)
+    int lockDigest(@Param("sha256") String sha256);
+
+    @Query(value = "SELECT * FROM book_blobs WHERE sha256 = :sha256 FOR UPDATE", nativeQuery = true)
+    Optional<BookBlob> lockBySha256(@Param("sha256") String sha256);
+}
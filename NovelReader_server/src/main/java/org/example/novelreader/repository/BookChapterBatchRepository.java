@@ -0,0 +1,15 @@
+package org.example.novelreader.repository;
+
+import org.example.novelreader.entity.BookChapter;
+import org.example.novelreader.entity.BookChapterId;
+
+import java.util.Collection;
+import java.util.List;
+
+// zapis całego spisu jednym batchem - saveAll robiłby SELECT przed każdym INSERT-em (id nadajemy sami)
+public interface BookChapterBatchRepository {
+    void insertChapters(List<BookChapter> chapters);
+
+    // tylko wskazane rozdziały (np. te z zakładek), a nie całe spisy ich książek
+    List<BookChapter> findByIds(Collection<BookChapterId> ids);
+}
@@ -0,0 +1,64 @@
+package org.example.novelreader.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.novelreader.entity.BookChapter;
+import org.example.novelreader.entity.BookChapterId;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * Spis rozdziałów może zapisać naraz kilka requestów (pierwsze otwarcie starej książki)
+ * albo worker i request jednocześnie. Treść pod tym samym (book_id, chapter_index) jest zawsze
+ * ta sama, więc przegrany po prostu nic nie wstawia zamiast dostać naruszenie klucza głównego.
+ */
+@RequiredArgsConstructor
+public class BookChapterBatchRepositoryImpl implements BookChapterBatchRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO book_chapters (book_id, chapter_index, title, text_length)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (book_id, chapter_index) DO NOTHING
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertChapters(List<BookChapter> chapters) {
+        if (chapters.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(chapters.size());
+        for (BookChapter chapter : chapters) {
+            rows.add(new Object[]{chapter.getBookId(), chapter.getChapterIndex(), chapter.getTitle(), chapter.getTextLength()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    @Override
+    public List<BookChapter> findByIds(Collection<BookChapterId> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        // (book_id, chapter_index) IN ((?, ?), ...) - każda para to jedno wyszukanie po kluczu głównym
+        String pairs = String.join(", ", Collections.nCopies(ids.size(), "(?, ?)"));
+        List<Object> args = new ArrayList<>(ids.size() * 2);
+        for (BookChapterId id : ids) {
+            args.add(id.getBookId());
+            args.add(id.getChapterIndex());
+        }
+        return jdbcTemplate.query(
+                "SELECT book_id, chapter_index, title, text_length FROM book_chapters "
+                        + "WHERE (book_id, chapter_index) IN (" + pairs + ")",
+                (rs, rowNum) -> BookChapter.builder()
+                        .bookId(rs.getLong("book_id"))
+                        .chapterIndex(rs.getInt("chapter_index"))
+                        .title(rs.getString("title"))
+                        .textLength(rs.getInt("text_length"))
+                        .build(),
+                args.toArray());
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.novelreader.repository;
+
+import org.example.novelreader.entity.BookChapter;
+import org.example.novelreader.entity.BookChapterId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BookChapterRepository extends JpaRepository<BookChapter, BookChapterId>, BookChapterBatchRepository {
+
+    List<BookChapter> findByBookIdOrderByChapterIndexAsc(Long bookId);
+
+    // jedno zapytanie na całą listę zakładek zamiast parsowania książki per zakładka
+    // spis istnieje, jeśli jest rozdział 0 - jedno wyszukanie po kluczu na książkę zamiast całego spisu
+    @Query("SELECT c.bookId FROM BookChapter c WHERE c.bookId IN :bookIds AND c.chapterIndex = 0")
+    List<Long> findIndexedBookIds(@Param("bookIds") Collection<Long> bookIds);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM BookChapter c WHERE c.bookId = :bookId")
+    void deleteByBookId(@Param("bookId") Long bookId);
+
+    // ten sam blob = ten sam spis rozdziałów, kopiujemy z innej książki zamiast parsować
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO book_chapters (book_id, chapter_index, title, text_length) " +
+            "SELECT :targetBookId, chapter_index, title, text_length FROM book_chapters WHERE book_id = :sourceBookId",
+            nativeQuery = true)
+    int copyChapters(@Param("sourceBookId") Long sourceBookId, @Param("targetBookId") Long targetBookId);
+}
@@ -0,0 +1,20 @@
+package org.example.novelreader.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.example.novelreader.entity.BookStatus;
+
+import java.time.LocalDateTime;
+
+// wiersz listy książek - konstruktor pod projekcję JPQL, lastReadAt tylko do sortowania i kursora
+@Getter
+@AllArgsConstructor
+public class BookLibraryEntry {
+    private final Long id;
+    private final String title;
+    private final String author;
+    private final String description;
+    private final LocalDateTime uploadedAt;
+    private final BookStatus status;
+    private final LocalDateTime lastReadAt;
+}
@@ -0,0 +1,18 @@
+package org.example.novelreader.repository;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.example.novelreader.entity.BookStatus;
+
+// jedna strona biblioteki: sortowanie, filtry i opcjonalny punkt startu (klucz + id ostatniej książki poprzedniej strony)
+@Getter
+@Builder
+public class BookLibraryQuery {
+    private final BookSort sort;
+    private final boolean descending;
+    private final BookStatus status;  // null = wszystkie
+    private final String text;  // fragment tytułu albo autora, null = bez filtra
+    private final Object afterKey;
+    private final Long afterId;
+    private final int limit;
+}
@@ -0,0 +1,8 @@
+package org.example.novelreader.repository;
+
+import java.util.List;
+
+// zapytanie składane z kawałków (sort, kierunek, filtry) - derived queries by tego nie udźwignęły
+public interface BookLibraryRepository {
+    List<BookLibraryEntry> findLibraryPage(Long ownerId, BookLibraryQuery query);
+}
@@ -0,0 +1,67 @@
+package org.example.novelreader.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+import java.util.Locale;
+
+/*
+ * Keyset zamiast OFFSET: kolejna strona zaczyna się za (klucz, id) ostatniej książki poprzedniej,
+ * więc baza schodzi po indeksie (user_id, klucz, id) od razu we właściwe miejsce.
+ * Wynik idzie prosto do BookLibraryEntry - encje Book nie są tworzone.
+ */
+public class BookLibraryRepositoryImpl implements BookLibraryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookLibraryEntry> findLibraryPage(Long ownerId, BookLibraryQuery query) {
+        String key = query.getSort().getKeyExpression();
+        String direction = query.isDescending() ? "DESC" : "ASC";
+        String beyond = query.isDescending() ? "<" : ">";
+        String sameOrBeyond = query.isDescending() ? "<=" : ">=";
+
+        StringBuilder jpql = new StringBuilder()
+                .append("SELECT new org.example.novelreader.repository.BookLibraryEntry(")
+                .append("b.id, b.title, b.author, b.description, b.uploadedAt, b.status, p.updatedAt) ")
+                .append("FROM Book b LEFT JOIN BookProgress p ON p.book.id = b.id AND p.user.id = :ownerId ")
+                .append("WHERE b.owner.id = :ownerId");
+        if (query.getStatus() != null) {
+            jpql.append(" AND b.status = :status");
+        }
+        if (StringUtils.hasText(query.getText())) {
+            jpql.append(" AND (LOWER(b.title) LIKE :text ESCAPE '\\' OR LOWER(b.author) LIKE :text ESCAPE '\\')");
+        }
+        if (query.getAfterId() != null) {
+            // pierwszy warunek trzyma się indeksu, drugi rozstrzyga remisy po id
+            jpql.append(" AND ").append(key).append(' ').append(sameOrBeyond).append(" :afterKey")
+                    .append(" AND (").append(key).append(' ').append(beyond).append(" :afterKey")
+                    .append(" OR b.id ").append(beyond).append(" :afterId)");
+        }
+        jpql.append(" ORDER BY ").append(key).append(' ').append(direction)
+                .append(", b.id ").append(direction);
+
+        TypedQuery<BookLibraryEntry> typed = entityManager.createQuery(jpql.toString(), BookLibraryEntry.class)
+                .setParameter("ownerId", ownerId)
+                .setMaxResults(query.getLimit());
+        if (query.getStatus() != null) {
+            typed.setParameter("status", query.getStatus());
+        }
+        if (StringUtils.hasText(query.getText())) {
+            typed.setParameter("text", "%" + escapeLike(query.getText().trim().toLowerCase(Locale.ROOT)) + "%");
+        }
+        if (query.getAfterId() != null) {
+            typed.setParameter("afterKey", query.getAfterKey());
+            typed.setParameter("afterId", query.getAfterId());
+        }
+        return typed.getResultList();
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
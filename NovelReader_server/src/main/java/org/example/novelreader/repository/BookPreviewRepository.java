@@ -0,0 +1,35 @@
+package org.example.novelreader.repository;
+
+import org.example.novelreader.dto.BookPreviewResponse;
+import org.example.novelreader.entity.BookPreview;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BookPreviewRepository extends JpaRepository<BookPreview, Long> {
+
+    // jedno zapytanie po kluczu razem ze sprawdzeniem właściciela
+    @Query("SELECT p.preview FROM BookPreview p JOIN Book b ON b.id = p.bookId " +
+            "WHERE p.bookId = :bookId AND b.owner.id = :ownerId")
+    Optional<String> findPreview(@Param("bookId") Long bookId, @Param("ownerId") Long ownerId);
+
+    @Query("SELECT new org.example.novelreader.dto.BookPreviewResponse(p.bookId, p.preview) " +
+            "FROM BookPreview p JOIN Book b ON b.id = p.bookId WHERE b.owner.id = :ownerId AND p.bookId IN :bookIds")
+    List<BookPreviewResponse> findByOwnerIdAndBookIdIn(@Param("ownerId") Long ownerId, @Param("bookIds") Collection<Long> bookIds);
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO book_previews (book_id, preview, created_at) " +
+            "SELECT :targetBookId, preview, CURRENT_TIMESTAMP FROM book_previews WHERE book_id = :sourceBookId " +
+            "ON CONFLICT (book_id) DO UPDATE SET preview = EXCLUDED.preview",
+            nativeQuery = true)
+    int copyPreview(@Param("sourceBookId") Long sourceBookId, @Param("targetBookId") Long targetBookId);
+}
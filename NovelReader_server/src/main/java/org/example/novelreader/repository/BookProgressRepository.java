@@ -11,4 +11,7 @@ public interface BookProgressRepository extends JpaRepository<BookProgress, Long
 
     Optional<BookProgress> findByUserAndBook(User user, Book book);
 
+    // bez ładowania User i Book - postęp czytany jest przy każdym otwarciu książki
+    Optional<BookProgress> findByUserIdAndBookId(Long userId, Long bookId);
+
 }
@@ -1,10 +1,33 @@
 package org.example.novelreader.repository;
 
 import org.example.novelreader.entity.Book;
+import org.example.novelreader.entity.BookStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.util.Optional;
 
-public interface BookRepository extends JpaRepository<Book, Long> {
-    List<Book> findByOwnerId(Long userId);
+public interface BookRepository extends JpaRepository<Book, Long>, BookLibraryRepository {
+    // właściciel sprawdzany w SQL (WHERE id = ? AND user_id = ?), a nie po załadowaniu książki
+    Optional<Book> findByIdAndOwnerId(Long id, Long ownerId);
+
+    boolean existsByIdAndOwnerId(Long id, Long ownerId);
+
+    // inna gotowa książka z tym samym plikiem - od niej bierzemy spis rozdziałów
+    Optional<Book> findFirstByContentSha256AndStatusAndIdNot(String contentSha256, BookStatus status, Long id);
+
+    // sam status, bez merge całej encji - książka mogła zostać usunięta w trakcie przetwarzania
+    @Modifying
+    @Transactional
+    @Query("UPDATE Book b SET b.status = :status WHERE b.id = :id")
+    int updateStatus(@Param("id") Long id, @Param("status") BookStatus status);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Book b SET b.title = :title, b.author = :author, b.description = :description WHERE b.id = :id")
+    int updateMetadata(@Param("id") Long id, @Param("title") String title,
+                       @Param("author") String author, @Param("description") String description);
 }
@@ -0,0 +1,66 @@
+package org.example.novelreader.repository;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Optional;
+
+/*
+ * Sortowania listy książek. Każde ma klucz w JPQL (ten sam co w indeksie z V16/V17), domyślny kierunek
+ * i sposób odczytania klucza z wiersza - z niego budujemy kursor następnej strony.
+ * Klucze są NOT NULL (COALESCE), bo porównania z NULL-em rozwaliłyby keyset.
+ *
+ * Wyjątek: LAST_READ bierze klucz z book_progress, więc żaden indeks go nie prowadzi - baza sortuje
+ * za każdym razem całą bibliotekę użytkownika. Keyset nadal oszczędza przesyłanie i mapowanie wierszy.
+ */
+public enum BookSort {
+    TITLE("title", "b.title", false),
+    AUTHOR("author", "COALESCE(b.author, '')", false),
+    UPLOADED_AT("uploadedAt", "b.uploadedAt", true),
+    LAST_READ("lastRead", "COALESCE(p.updatedAt, {ts '1970-01-01 00:00:00'})", true);
+
+    // nieczytane lądują na końcu "ostatnio czytanych" - ta sama data co literał w kluczu LAST_READ
+    public static final LocalDateTime NEVER_READ = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final String param;
+    private final String keyExpression;
+    private final boolean descendingByDefault;
+
+    BookSort(String param, String keyExpression, boolean descendingByDefault) {
+        this.param = param;
+        this.keyExpression = keyExpression;
+        this.descendingByDefault = descendingByDefault;
+    }
+
+    public static Optional<BookSort> fromParam(String param) {
+        return Arrays.stream(values()).filter(s -> s.param.equals(param)).findFirst();
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    public boolean isDescendingByDefault() {
+        return descendingByDefault;
+    }
+
+    String getKeyExpression() {
+        return keyExpression;
+    }
+
+    public Object keyOf(BookLibraryEntry entry) {
+        return switch (this) {
+            case TITLE -> entry.getTitle();
+            case AUTHOR -> entry.getAuthor() != null ? entry.getAuthor() : "";
+            case UPLOADED_AT -> entry.getUploadedAt();
+            case LAST_READ -> entry.getLastReadAt() != null ? entry.getLastReadAt() : NEVER_READ;
+        };
+    }
+
+    // klucz z kursora - tekstowy tak jak jest, daty w ISO (LocalDateTime.toString)
+    public Object parseKey(String key) {
+        return switch (this) {
+            case TITLE, AUTHOR -> key;
+            case UPLOADED_AT, LAST_READ -> LocalDateTime.parse(key);
+        };
+    }
+}
@@ -1,6 +1,7 @@
 package org.example.novelreader.repository;
 
 import org.example.novelreader.entity.Bookmark;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -12,8 +13,11 @@ import java.util.Optional;
 @Repository
 public interface BookmarkRepository extends JpaRepository<Bookmark, Long> {
 
+    // book dociągamy od razu - lista zakładek i tak potrzebuje tytułu każdej książki
+    @EntityGraph(attributePaths = "book")
     List<Bookmark> findByUserIdAndBookIdOrderByChapterIndexAscCharacterOffsetAsc(Long userId, Long bookId);
 
+    @EntityGraph(attributePaths = "book")
     List<Bookmark> findByUserIdOrderByCreatedAtDesc(Long userId);
 
     Optional<Bookmark> findByIdAndUserId(Long id, Long userId);
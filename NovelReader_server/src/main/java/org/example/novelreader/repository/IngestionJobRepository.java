@@ -0,0 +1,67 @@
+package org.example.novelreader.repository;
+
+import org.example.novelreader.entity.IngestionJob;
+import org.example.novelreader.entity.IngestionJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface IngestionJobRepository extends JpaRepository<IngestionJob, UUID> {
+
+    Optional<IngestionJob> findByIdAndUserId(UUID id, Long userId);
+
+    List<IngestionJob> findByBatchIdAndUserIdOrderByCreatedAt(UUID batchId, Long userId);
+
+    long countByUserIdAndStatusIn(Long userId, Collection<IngestionJobStatus> statuses);
+
+    long countByStatusAndPriorityGreaterThan(IngestionJobStatus status, int priority);
+
+    // SKIP LOCKED - kilka instancji może drenować kolejkę naraz, każda dostaje inne wiersze.
+    // Blokada trzyma do końca transakcji, w której oznaczamy zadania jako RUNNING.
+    // Najpierw zwykłe uploady; import wsadowy użytkownika, który wyczerpał limit, w ogóle nie jest brany
+    // pod uwagę - inaczej jego 2000 książek w kolejce zasłoniłoby import kogoś innego.
+    @Query(value = "SELECT * FROM ingestion_jobs " +
+            "WHERE status = 'QUEUED' AND next_attempt_at <= :now " +
+            "AND (priority = 0 OR user_id NOT IN (" +
+            "    SELECT user_id FROM ingestion_jobs WHERE status = 'RUNNING' AND priority > 0 " +
+            "    GROUP BY user_id HAVING COUNT(*) >= :maxBulkPerUser)) " +
+            "ORDER BY priority, next_attempt_at " +
+            "LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<IngestionJob> lockQueued(@Param("now") LocalDateTime now, @Param("limit") int limit,
+                                  @Param("maxBulkPerUser") int maxBulkPerUser);
+
+    @Query("SELECT j.userId AS userId, COUNT(j) AS jobs FROM IngestionJob j " +
+            "WHERE j.status = org.example.novelreader.entity.IngestionJobStatus.RUNNING " +
+            "AND j.priority > 0 AND j.userId IN :userIds GROUP BY j.userId")
+    List<UserJobCount> countRunningBulkByUser(@Param("userIds") Collection<Long> userIds);
+
+    // RUNNING z wygasłą dzierżawą = worker padł w trakcie (restart, OOM itp.)
+    @Query(value = "SELECT * FROM ingestion_jobs " +
+            "WHERE status = 'RUNNING' AND locked_at < :threshold " +
+            "LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<IngestionJob> lockExpired(@Param("threshold") LocalDateTime threshold, @Param("limit") int limit);
+
+    // heartbeat - tylko zadania, które nadal trzyma ten worker (przejęte przez innego zostają nietknięte)
+    @Modifying
+    @Query("UPDATE IngestionJob j SET j.lockedAt = :now " +
+            "WHERE j.id IN :ids AND j.lockedBy = :workerId " +
+            "AND j.status = org.example.novelreader.entity.IngestionJobStatus.RUNNING")
+    int renewLeases(@Param("ids") Collection<UUID> ids, @Param("workerId") String workerId,
+                    @Param("now") LocalDateTime now);
+
+    interface UserJobCount {
+        Long getUserId();
+        long getJobs();
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.novelreader.repository;
+
+import org.example.novelreader.entity.StagedUpload;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface StagedUploadRepository extends JpaRepository<StagedUpload, UUID> {
+
+    // blokada - dwa równoległe commity tego samego tokenu nie utworzą dwóch książek
+    @Query(value = "SELECT * FROM staged_uploads WHERE token = :token AND user_id = :userId FOR UPDATE", nativeQuery = true)
+    Optional<StagedUpload> lockByTokenAndUserId(@Param("token") UUID token, @Param("userId") Long userId);
+
+    @Query(value = "SELECT * FROM staged_uploads WHERE expires_at < :now LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<StagedUpload> lockExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
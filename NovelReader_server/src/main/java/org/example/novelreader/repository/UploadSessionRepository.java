@@ -0,0 +1,37 @@
+package org.example.novelreader.repository;
+
+import org.example.novelreader.entity.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, UUID> {
+
+    Optional<UploadSession> findByIdAndUserId(UUID id, Long userId);
+
+    // przesuwa offset tylko jeśli nikt inny go w międzyczasie nie ruszył - 0 = kawałek się spóźnił
+    @Modifying
+    @Transactional
+    @Query("UPDATE UploadSession s SET s.receivedBytes = :to, s.expiresAt = :expiresAt "
+            + "WHERE s.id = :id AND s.receivedBytes = :from")
+    int advance(@Param("id") UUID id, @Param("from") long from, @Param("to") long to,
+                @Param("expiresAt") LocalDateTime expiresAt);
+
+    // tylko jedno z równoległych complete dostanie 1 i przejmie plik
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UploadSession s WHERE s.id = :id AND s.userId = :userId AND s.receivedBytes = s.totalSize")
+    int deleteCompleted(@Param("id") UUID id, @Param("userId") Long userId);
+
+    @Query(value = "SELECT * FROM upload_sessions WHERE expires_at < :now LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<UploadSession> lockExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
@@ -2,7 +2,11 @@ package org.example.novelreader.repository;
 
 import org.example.novelreader.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -17,4 +21,20 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    // sam licznik do ETagu listy książek - bez ładowania całego użytkownika
+    @Query("SELECT u.libraryVersion FROM User u WHERE u.id = :userId")
+    Optional<Long> findLibraryVersion(@Param("userId") Long userId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.libraryVersion = u.libraryVersion + 1 WHERE u.id = :userId")
+    void bumpLibraryVersion(@Param("userId") Long userId);
+
+    // dla miejsc które znają tylko książkę (kolejka przetwarzania)
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE users SET library_version = library_version + 1 " +
+            "WHERE id = (SELECT user_id FROM books WHERE id = :bookId)", nativeQuery = true)
+    void bumpLibraryVersionOfBook(@Param("bookId") Long bookId);
 }
@@ -0,0 +1,26 @@
+package org.example.novelreader.security;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.security.Principal;
+
+// zalogowany użytkownik prosto z podpisanego JWT - bez zapytania do tabeli users
+// getName() zwraca login, więc Authentication.getName() działa jak wcześniej
+@Getter
+@RequiredArgsConstructor
+public class AuthenticatedUser implements Principal {
+
+    private final Long userId;
+    private final String username;
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    @Override
+    public String toString() {
+        return username + " (" + userId + ")";
+    }
+}
@@ -2,6 +2,7 @@ package org.example.novelreader.security;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,18 +11,24 @@ import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Optional;
 
 @Component
 public class JwtTokenProvider {
 
     private final SecretKey key;
     private final long jwtExpirationMs;
+    private final JwtParser parser;  // niezmienny i thread-safe - budujemy raz, nie przy każdym żądaniu
+    private final VerifiedTokenCache verifiedTokens;
 
     public JwtTokenProvider(
             @Value("${jwt.secret}") String jwtSecret,
-            @Value("${jwt.expiration-ms}") long jwtExpirationMs) {
+            @Value("${jwt.expiration-ms}") long jwtExpirationMs,
+            @Value("${jwt.cache.max-entries}") int cacheMaxEntries) {
         this.key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
         this.jwtExpirationMs = jwtExpirationMs;
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.verifiedTokens = new VerifiedTokenCache(cacheMaxEntries);
     }
 
     public String generateToken(Long userId, String username) {
@@ -37,25 +44,29 @@ public class JwtTokenProvider {
                 .compact();
     }
 
-    public Long getUserIdFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-
-        return Long.parseLong(claims.getSubject());
-    }
+    // pusty Optional = token nieważny, wygasły albo bez wymaganych claimów
+    public Optional<AuthenticatedUser> parseAuthenticatedUser(String token) {
+        long now = System.currentTimeMillis();
+        Optional<AuthenticatedUser> cached = verifiedTokens.get(token, now);
+        if (cached.isPresent()) {
+            return cached;
+        }
 
-    public boolean validateToken(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+
+            String username = claims.get("username", String.class);
+            if (claims.getSubject() == null || username == null) {
+                return Optional.empty();
+            }
+            AuthenticatedUser user = new AuthenticatedUser(Long.parseLong(claims.getSubject()), username);
+            // tokenów bez exp nie zapamiętujemy - nie wiadomo kiedy wpis miałby wygasnąć
+            if (claims.getExpiration() != null) {
+                verifiedTokens.put(token, user, claims.getExpiration().getTime());
+            }
+            return Optional.of(user);
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return Optional.empty();
         }
     }
 }
@@ -0,0 +1,75 @@
+package org.example.novelreader.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/*
+ * Ostatnio zweryfikowane tokeny - klient wysyła ten sam token przy każdym żądaniu,
+ * więc podpis sprawdzamy raz, a potem tylko liczymy SHA-256 tokenu i patrzymy do mapy.
+ * Kluczem jest skrót, nie sam token (nie trzymamy w pamięci gotowych do użycia tokenów).
+ * Wpis żyje do exp tokenu, przy przepełnieniu wylatuje najdawniej używany (LRU).
+ */
+class VerifiedTokenCache {
+
+    private final int maxEntries;
+    private final LinkedHashMap<String, Entry> entries;
+
+    VerifiedTokenCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > VerifiedTokenCache.this.maxEntries;
+            }
+        };
+    }
+
+    Optional<AuthenticatedUser> get(String token, long nowMillis) {
+        if (maxEntries <= 0) {
+            return Optional.empty();
+        }
+        String key = hash(token);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            if (entry.expiresAtMillis() <= nowMillis) {
+                entries.remove(key);
+                return Optional.empty();
+            }
+            return Optional.of(entry.user());
+        }
+    }
+
+    void put(String token, AuthenticatedUser user, long expiresAtMillis) {
+        if (maxEntries <= 0) {
+            return;
+        }
+        String key = hash(token);
+        synchronized (this) {
+            entries.put(key, new Entry(user, expiresAtMillis));
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Entry(AuthenticatedUser user, long expiresAtMillis) {
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.novelreader.service;
+
+import org.example.novelreader.dto.EpubDto;
+import org.example.novelreader.entity.Book;
+
+import java.io.IOException;
+
+/*
+ * Wszystko co wyliczamy z pliku EPUB po uploadzie (treść rozdziałów, spis w bazie).
+ * Używa tego zarówno kolejka przetwarzania jak i leniwa odbudowa przy odczycie.
+ */
+public interface BookArtifactService {
+    // dla kolejki - jak inna książka ma ten sam plik, bierze gotowe artefakty zamiast parsować
+    void ingest(Book book) throws IOException;
+    EpubDto buildArtifacts(Book book) throws IOException;
+    // zapisuje podgląd z już sparsowanej treści i go zwraca
+    String savePreview(Book book, EpubDto dto);
+}
@@ -0,0 +1,149 @@
+package org.example.novelreader.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.novelreader.dto.ChapterDto;
+import org.example.novelreader.dto.EpubDto;
+import org.example.novelreader.entity.Book;
+import org.example.novelreader.entity.BookChapter;
+import org.example.novelreader.entity.BookPreview;
+import org.example.novelreader.entity.BookStatus;
+import org.example.novelreader.repository.BookChapterRepository;
+import org.example.novelreader.repository.BookPreviewRepository;
+import org.example.novelreader.repository.BookRepository;
+import org.example.novelreader.storage.BookContentStore;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookArtifactServiceImpl implements BookArtifactService {
+
+    private static final int PREVIEW_CHARS = 3000;
+
+    private final EpubService epubService;
+    private final BookContentStore bookContentStore;
+    private final BookChapterRepository bookChapterRepository;
+    private final BookRepository bookRepository;
+    private final BookPreviewRepository bookPreviewRepository;
+
+    // klucz to plik (SHA-256, a dla starych książek ścieżka) - książki-duplikaty dzielą jedno parsowanie
+    private final ConcurrentHashMap<String, Flight> inFlight = new ConcurrentHashMap<>();
+
+    @Override
+    public void ingest(Book book) throws IOException {
+        if (book.getContentSha256() != null && bookContentStore.exists(book.getFilePath())) {
+            Optional<Book> sibling = bookRepository.findFirstByContentSha256AndStatusAndIdNot(
+                    book.getContentSha256(), BookStatus.READY, book.getId());
+            if (sibling.isPresent()) {
+                bookChapterRepository.deleteByBookId(book.getId());
+                if (bookChapterRepository.copyChapters(sibling.get().getId(), book.getId()) > 0) {
+                    if (bookPreviewRepository.copyPreview(sibling.get().getId(), book.getId()) == 0) {
+                        // książka-wzór sprzed book_previews - podgląd z gotowej treści, EPUB-a nie ruszamy
+                        Optional<EpubDto> content = bookContentStore.readBook(book.getFilePath());
+                        if (content.isPresent()) {
+                            savePreview(book, content.get());
+                        }
+                    }
+                    log.info("Książka {} dzieli treść z książką {}, pomijam parsowanie", book.getId(), sibling.get().getId());
+                    return;
+                }
+            }
+        }
+        buildArtifacts(book);
+    }
+
+    // kilka requestów o tę samą książkę (albo o jej duplikaty) tuż po uploadzie czeka na jedno parsowanie
+    @Override
+    public EpubDto buildArtifacts(Book book) throws IOException {
+        String key = book.getContentSha256() != null ? book.getContentSha256() : book.getFilePath();
+        Flight own = new Flight(book.getId(), new CompletableFuture<>());
+        Flight running = inFlight.putIfAbsent(key, own);
+        if (running != null) {
+            log.debug("Plik książki {} jest już parsowany, czekam na wynik", book.getId());
+            EpubDto dto = await(running.result());
+            if (!running.bookId().equals(book.getId())) {
+                // plik wspólny, ale spis rozdziałów i podgląd są per książka
+                saveChapterIndex(book, dto);
+                savePreview(book, dto);
+            }
+            return dto;
+        }
+
+        try {
+            EpubDto dto = build(book);
+            own.result().complete(dto);
+            return dto;
+        } catch (Throwable e) {
+            own.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    private EpubDto build(Book book) throws IOException {
+        EpubDto dto = epubService.parseEpubFromFilePath(book.getFilePath());
+
+        // plik z treścią + spis rozdziałów w bazie (tytuły dla zakładek, spis treści bez otwierania pliku)
+        bookContentStore.write(book.getFilePath(), dto);
+        saveChapterIndex(book, dto);
+        savePreview(book, dto);
+        return dto;
+    }
+
+    private void saveChapterIndex(Book book, EpubDto dto) {
+        List<ChapterDto> chapters = dto.getChapters() != null ? dto.getChapters() : List.of();
+        List<BookChapter> rows = new ArrayList<>(chapters.size());
+        for (int i = 0; i < chapters.size(); i++) {
+            ChapterDto chapter = chapters.get(i);
+            rows.add(BookChapter.builder()
+                    .bookId(book.getId())
+                    .chapterIndex(i)
+                    .title(chapter.getTitle())
+                    .textLength(chapter.getText() != null ? chapter.getText().length() : 0)
+                    .build());
+        }
+        bookChapterRepository.deleteByBookId(book.getId());
+        bookChapterRepository.insertChapters(rows);
+    }
+
+    @Override
+    public String savePreview(Book book, EpubDto dto) {
+        String preview = epubService.generatePreview(dto, PREVIEW_CHARS);
+        bookPreviewRepository.save(BookPreview.builder()
+                .bookId(book.getId())
+                .preview(preview)
+                .createdAt(LocalDateTime.now())
+                .build());
+        return preview;
+    }
+
+    private static EpubDto await(CompletableFuture<EpubDto> running) throws IOException {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            // błąd prowadzącego wątku oddajemy każdemu czekającemu w tej samej postaci
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw new IOException(io.getMessage(), io);
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    private record Flight(Long bookId, CompletableFuture<EpubDto> result) {
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.novelreader.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// treść do wysłania - dostęp i status sprawdzone od razu, plik czytany dopiero przy pisaniu odpowiedzi
+@FunctionalInterface
+public interface BookContentStream {
+    void writeTo(OutputStream out) throws IOException;
+}
@@ -0,0 +1,20 @@
+package org.example.novelreader.service;
+
+import org.example.novelreader.dto.BatchUploadResult;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/*
+ * Import wielu książek naraz. Request tylko zapisuje pliki i zgłasza zadania (niski priorytet),
+ * parsowanie robią workery - wynik każdego pliku idzie do onResult zaraz po jego zgłoszeniu.
+ */
+public interface BookImportService {
+    void importUploads(Long userId, UUID batchId, List<MultipartFile> files, Consumer<BatchUploadResult> onResult);
+    // sprawdza uprawnienia i ścieżkę zanim cokolwiek zostanie zaimportowane
+    List<Path> resolveDirectory(String username, String directory);
+    void importFiles(Long userId, UUID batchId, List<Path> files, Consumer<BatchUploadResult> onResult);
+}
@@ -0,0 +1,134 @@
+package org.example.novelreader.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.novelreader.dto.BatchUploadResult;
+import org.example.novelreader.dto.IngestionJobResponse;
+import org.example.novelreader.exception.ResourceNotFoundException;
+import org.example.novelreader.storage.BookFileStorage;
+import org.example.novelreader.storage.StoredFile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookImportServiceImpl implements BookImportService {
+
+    private final BookService bookService;
+    private final IngestionService ingestionService;
+    private final BookFileStorage bookFileStorage;
+
+    @Value("${book.import.max-pending-per-user}")
+    private long maxPendingPerUser;
+
+    @Value("${book.import.allowed-root}")
+    private String allowedRoot;
+
+    @Value("${book.import.admins}")
+    private Set<String> admins;
+
+    @Override
+    public void importUploads(Long userId, UUID batchId, List<MultipartFile> files, Consumer<BatchUploadResult> onResult) {
+        long capacity = maxPendingPerUser - ingestionService.countPending(userId);
+        for (MultipartFile file : files) {
+            String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename() : "book.epub";
+            if (capacity-- <= 0) {
+                onResult.accept(rejected(fileName, batchId));
+                continue;
+            }
+            onResult.accept(importOne(userId, batchId, fileName, () -> bookFileStorage.receive(file)));
+        }
+    }
+
+    @Override
+    public List<Path> resolveDirectory(String username, String directory) {
+        if (!StringUtils.hasText(allowedRoot) || !admins.contains(username)) {
+            throw new AccessDeniedException("Import katalogu wymaga uprawnień administratora");
+        }
+
+        try {
+            Path root = Paths.get(allowedRoot).toRealPath();
+            Path requested = root.resolve(directory != null ? directory : "").normalize();
+            if (!requested.startsWith(root) || !Files.isDirectory(requested)) {
+                throw new ResourceNotFoundException("Katalog " + directory + " nie istnieje w katalogu importu");
+            }
+            // dowiązania nie mogą wyprowadzić poza katalog importu
+            Path dir = requested.toRealPath();
+            if (!dir.startsWith(root)) {
+                throw new AccessDeniedException("Katalog " + directory + " jest poza katalogiem importu");
+            }
+            try (Stream<Path> paths = Files.walk(dir)) {
+                return paths
+                        .filter(p -> Files.isRegularFile(p, LinkOption.NOFOLLOW_LINKS))
+                        .filter(p -> p.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".epub"))
+                        .sorted()
+                        .toList();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to list import directory", e);
+        }
+    }
+
+    @Override
+    public void importFiles(Long userId, UUID batchId, List<Path> files, Consumer<BatchUploadResult> onResult) {
+        long capacity = maxPendingPerUser - ingestionService.countPending(userId);
+        for (Path file : files) {
+            String fileName = file.getFileName().toString();
+            if (capacity-- <= 0) {
+                onResult.accept(rejected(fileName, batchId));
+                continue;
+            }
+            onResult.accept(importOne(userId, batchId, fileName, () -> bookFileStorage.receive(file)));
+        }
+    }
+
+    // błąd jednego pliku nie przerywa importu - trafia do jego linii wyniku
+    private BatchUploadResult importOne(Long userId, UUID batchId, String fileName, FileSource source) {
+        try {
+            StoredFile incoming = source.store();
+            IngestionJobResponse job = bookService.importBook(userId, batchId, incoming, fileName);
+            return BatchUploadResult.builder()
+                    .fileName(fileName)
+                    .batchId(batchId)
+                    .jobId(job.getJobId())
+                    .bookId(job.getBookId())
+                    .build();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Import pliku {} (paczka {}) nieudany: {}", fileName, batchId, e.getMessage());
+            return BatchUploadResult.builder()
+                    .fileName(fileName)
+                    .batchId(batchId)
+                    .error(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName())
+                    .build();
+        }
+    }
+
+    private BatchUploadResult rejected(String fileName, UUID batchId) {
+        return BatchUploadResult.builder()
+                .fileName(fileName)
+                .batchId(batchId)
+                .error("Przekroczony limit " + maxPendingPerUser + " książek czekających na przetworzenie")
+                .build();
+    }
+
+    @FunctionalInterface
+    private interface FileSource {
+        StoredFile store() throws IOException;
+    }
+}
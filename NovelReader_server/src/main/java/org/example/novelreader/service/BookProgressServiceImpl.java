@@ -3,66 +3,58 @@ package org.example.novelreader.service;
 import lombok.RequiredArgsConstructor;
 import org.example.novelreader.dto.BookProgressRequest;
 import org.example.novelreader.dto.BookProgressResponse;
-import org.example.novelreader.entity.Book;
-import org.example.novelreader.entity.BookProgress;
-import org.example.novelreader.entity.User;
+import org.example.novelreader.exception.ResourceNotFoundException;
 import org.example.novelreader.repository.BookProgressRepository;
 import org.example.novelreader.repository.BookRepository;
-import org.example.novelreader.repository.UserRepository;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+
 @Service
 @RequiredArgsConstructor
 public class BookProgressServiceImpl implements BookProgressService {
 
     private final BookProgressRepository repo;
-    private final UserRepository userRepository;
     private final BookRepository bookRepository;
+    private final ProgressWriteBuffer progressWriteBuffer;  // zapis trafia do bazy paczką, nie przy każdym pingu
 
     @Override
     public BookProgressResponse getProgress(Long userId, Long bookId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new RuntimeException("Book not found"));
-
-        return repo.findByUserAndBook(user, book)
-                .map(p -> BookProgressResponse.builder()
-                        .bookId(bookId)
-                        .chapterIndex(p.getChapterIndex())
-                        .offsetInChapter(p.getOffsetInChapter())
-                        .build())
-                .orElse(BookProgressResponse.builder()
-                        .bookId(bookId)
-                        .chapterIndex(0)
-                        .offsetInChapter(0)
-                        .build());
+        // najpierw to, czego jeszcze nie zapisaliśmy - baza może być kilka sekund do tyłu
+        Optional<ProgressWriteBuffer.PendingProgress> buffered = progressWriteBuffer.get(userId, bookId);
+        if (buffered.isPresent()) {
+            return mapToResponse(bookId, buffered.get().chapterIndex(), buffered.get().offsetInChapter());
+        }
+
+        Optional<BookProgressResponse> stored = repo.findByUserIdAndBookId(userId, bookId)
+                .map(p -> mapToResponse(bookId, p.getChapterIndex(), p.getOffsetInChapter()));
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+
+        // brak postępu to początek książki - ale tylko własnej, cudza albo usunięta to 404
+        if (!bookRepository.existsByIdAndOwnerId(bookId, userId)) {
+            throw new ResourceNotFoundException("Książka o ID " + bookId + " nie istnieje");
+        }
+        return mapToResponse(bookId, 0, 0);
     }
 
     @Override
     public BookProgressResponse updateProgress(Long userId, Long bookId, BookProgressRequest req) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new RuntimeException("Book not found"));
-
-        BookProgress progress = repo.findByUserAndBook(user, book)
-                .orElse(BookProgress.builder()
-                        .user(user)
-                        .book(book)
-                        .chapterIndex(0)
-                        .offsetInChapter(0)
-                        .build());
+        // książkę (i właściciela) sprawdzamy tylko przy pierwszym pingu od ostatniego flusha
+        if (!progressWriteBuffer.contains(userId, bookId) && !bookRepository.existsByIdAndOwnerId(bookId, userId)) {
+            throw new ResourceNotFoundException("Książka o ID " + bookId + " nie istnieje");
+        }
 
-        progress.setChapterIndex(req.getChapterIndex());
-        progress.setOffsetInChapter(req.getOffsetInChapter());
-
-        repo.save(progress);
+        progressWriteBuffer.put(userId, bookId, req.getChapterIndex(), req.getOffsetInChapter());
+        return mapToResponse(bookId, req.getChapterIndex(), req.getOffsetInChapter());
+    }
 
+    private BookProgressResponse mapToResponse(Long bookId, int chapterIndex, int offsetInChapter) {
         return BookProgressResponse.builder()
                 .bookId(bookId)
-                .chapterIndex(progress.getChapterIndex())
-                .offsetInChapter(progress.getOffsetInChapter())
+                .chapterIndex(chapterIndex)
+                .offsetInChapter(offsetInChapter)
                 .build();
     }
 }
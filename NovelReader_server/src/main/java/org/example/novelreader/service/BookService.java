@@ -1,21 +1,44 @@
 package org.example.novelreader.service;
 
+import org.example.novelreader.dto.BookListRequest;
+import org.example.novelreader.dto.BookPageResponse;
 import org.example.novelreader.dto.BookRequest;
 import org.example.novelreader.dto.BookResponse;
-import org.example.novelreader.dto.EpubDto;
+import org.example.novelreader.dto.ChapterDto;
+import org.example.novelreader.dto.ChapterSummaryDto;
+import org.example.novelreader.dto.BookPreviewResponse;
+import org.example.novelreader.dto.IngestionJobResponse;
+import org.example.novelreader.dto.StagedBookCommitRequest;
 import org.example.novelreader.entity.Book;
+import org.example.novelreader.storage.StoredFile;
 
 import java.util.List;
+import java.util.UUID;
 
 /*
  * Interfejs do obsługi książek - kontroler używa tego zamiast konkretnej klasy,
  * więc jak trzeba będzie zmienić impl to nie ruszamy kontrolera (DIP - Dependency Inversion)
  */
 public interface BookService {
-    BookResponse uploadBook(Long userId, BookRequest request);
-    List<BookResponse> getUserBooks(Long userId);
+    IngestionJobResponse uploadBook(Long userId, BookRequest request);
+    IngestionJobResponse commitStagedBook(Long userId, UUID stagingToken, StagedBookCommitRequest request);
+    // import wsadowy: plik już na dysku, zadanie idzie z niższym priorytetem w ramach batchId
+    IngestionJobResponse importBook(Long userId, UUID batchId, StoredFile incoming, String fileName);
+    // strona biblioteki (keyset) - kolejną zwraca nextCursor podany jako request.after
+    BookPageResponse getUserBooks(Long userId, BookListRequest request);
+    // słaby ETag strony biblioteki; null gdy kolejność zależy od postępu czytania (ten nie podbija wersji)
+    String getLibraryTag(Long userId, BookListRequest request);
     void deleteBook(Long userId, Long bookId);
     Book getBookByIdAndUser(Long userId, Long bookId);
-    EpubDto getParsedBook(Long userId, Long bookId);
+    // książka użytkownika gotowa do czytania (404 / 409) - jedno zapytanie na ETag i odczyt treści
+    Book getReadyBook(Long userId, Long bookId);
+    // silny ETag treści (niezmienna po przetworzeniu); null gdy książka nie ma skrótu pliku
+    String getContentTag(Book book);
+    // cała treść jako JSON EpubDto, pisana rozdział po rozdziale dopiero przy wysyłaniu odpowiedzi
+    BookContentStream openBookContent(Book book);
+    List<ChapterSummaryDto> getTableOfContents(Book book);
+    ChapterDto getChapter(Book book, int chapterIndex);
     String getBookPreview(Long userId, Long bookId);
+    // tylko zapisane podglądy wskazanych książek - pliki nie są otwierane
+    List<BookPreviewResponse> getBookPreviews(Long userId, List<Long> bookIds);
 }
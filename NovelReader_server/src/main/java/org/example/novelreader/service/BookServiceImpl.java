@@ -1,26 +1,54 @@
 package org.example.novelreader.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.novelreader.dto.BookListRequest;
+import org.example.novelreader.dto.BookPageResponse;
+import org.example.novelreader.dto.BookPreviewResponse;
 import org.example.novelreader.dto.BookRequest;
 import org.example.novelreader.dto.BookResponse;
+import org.example.novelreader.dto.ChapterDto;
+import org.example.novelreader.dto.ChapterSummaryDto;
 import org.example.novelreader.dto.EpubDto;
+import org.example.novelreader.dto.IngestionJobResponse;
+import org.example.novelreader.dto.StagedBookCommitRequest;
 import org.example.novelreader.entity.Book;
+import org.example.novelreader.entity.BookChapter;
+import org.example.novelreader.entity.BookStatus;
+import org.example.novelreader.entity.StagedUpload;
 import org.example.novelreader.entity.User;
+import org.example.novelreader.exception.BookNotReadyException;
+import org.example.novelreader.exception.InvalidRequestException;
+import org.example.novelreader.exception.ResourceNotFoundException;
+import org.example.novelreader.repository.BookChapterRepository;
+import org.example.novelreader.repository.BookLibraryEntry;
+import org.example.novelreader.repository.BookLibraryQuery;
+import org.example.novelreader.repository.BookPreviewRepository;
 import org.example.novelreader.repository.BookRepository;
+import org.example.novelreader.repository.BookSort;
 import org.example.novelreader.repository.UserRepository;
+import org.example.novelreader.storage.BookBlobStore;
+import org.example.novelreader.storage.BookContentFile;
+import org.example.novelreader.storage.BookContentJsonWriter;
+import org.example.novelreader.storage.BookContentStore;
+import org.example.novelreader.storage.BookFileStorage;
+import org.example.novelreader.storage.StoredFile;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /*
@@ -32,123 +60,354 @@ import java.util.stream.Collectors;
  */
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class BookServiceImpl implements BookService {
 
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
-    private final EpubService epubService;  // delegujemy parsowanie
-    private final ObjectMapper objectMapper;
+    private final BookChapterRepository bookChapterRepository;
+    private final BookPreviewRepository bookPreviewRepository;
+    private final BookArtifactService bookArtifactService;  // parsowanie + treść + spis rozdziałów
+    private final IngestionService ingestionService;  // upload tylko zgłasza zadanie, reszta w tle
+    private final BookStagingService bookStagingService;
+    private final BookContentStore bookContentStore;
+    private final BookFileStorage bookFileStorage;
+    private final BookBlobStore bookBlobStore;  // pliki współdzielone po SHA-256
+    private final BookContentJsonWriter bookContentJsonWriter;
 
-    @Value("${book.storage.path}")
-    private String storagePath;
+    @Value("${book.library.default-page-size}")
+    private int defaultPageSize;
+
+    @Value("${book.library.max-page-size}")
+    private int maxPageSize;
 
     @Override
-    public BookResponse uploadBook(Long userId, BookRequest request) {
+    @Transactional  // książka i jej zadanie w kolejce zapisują się razem albo wcale
+    public IngestionJobResponse uploadBook(Long userId, BookRequest request) {
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        // id z tokenu - do klucza obcego wystarczy referencja, bez SELECT-a po użytkownika
+        User user = userRepository.getReferenceById(userId);
 
         MultipartFile file = request.getFile();
         if (file == null || file.isEmpty()) {
             throw new RuntimeException("File is required");
         }
 
-        String filename = StringUtils.cleanPath(file.getOriginalFilename());
-        String userDirPath = storagePath + "/" + userId;
-        new File(userDirPath).mkdirs();
-
-        String filePath = userDirPath + "/" + System.currentTimeMillis() + "_" + filename;
+        StoredFile incoming;
         try {
-            Files.write(Paths.get(filePath), file.getBytes());
+            incoming = bookFileStorage.receive(file);
         } catch (IOException e) {
             throw new RuntimeException("Failed to store file", e);
         }
 
-        Book book = Book.builder()
-                .owner(user)
-                .title(request.getTitle())
-                .author(request.getAuthor())
-                .description(request.getDescription())
-                .filePath(filePath)
-                .uploadedAt(LocalDateTime.now())
-                .build();
+        try {
+            return createBook(user, incoming, request.getTitle(), request.getAuthor(), request.getDescription(), null);
+        } finally {
+            // blob ma własne dowiązanie do pliku, tymczasowy usuwamy zawsze
+            try {
+                bookFileStorage.delete(incoming.getPath());
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    @Override
+    @Transactional  // claim i nowa książka w jednej transakcji - błąd przywraca wpis ze staging (plik zostaje do commita)
+    public IngestionJobResponse commitStagedBook(Long userId, UUID stagingToken, StagedBookCommitRequest request) {
+        User user = userRepository.getReferenceById(userId);
 
-        bookRepository.save(book);
+        StagedUpload staged = bookStagingService.claim(userId, stagingToken);
+
+        String title = StringUtils.hasText(request.getTitle()) ? request.getTitle().trim() : staged.getTitle();
+        if (!StringUtils.hasText(title)) {
+            throw new RuntimeException("Title is required");
+        }
+        String author = StringUtils.hasText(request.getAuthor()) ? request.getAuthor().trim() : staged.getAuthor();
+        String description = StringUtils.hasText(request.getDescription()) ? request.getDescription().trim() : staged.getDescription();
+
+        StoredFile incoming = new StoredFile(Path.of(staged.getFilePath()), staged.getSha256(), staged.getFileSize());
+        return createBook(user, incoming, title, author, description, null);
+    }
+
+    @Override
+    @Transactional
+    public IngestionJobResponse importBook(Long userId, UUID batchId, StoredFile incoming, String fileName) {
+        User user = userRepository.getReferenceById(userId);
+
+        // metadanych nie czytamy tutaj - tytuł z nazwy pliku, resztę uzupełni worker przy przetwarzaniu
+        String title = fileName.replaceFirst("(?i)\\.epub$", "");
+        if (title.isBlank()) {
+            title = "Bez tytułu";
+        }
+        if (title.length() > 255) {
+            title = title.substring(0, 255);
+        }
+
+        try {
+            return createBook(user, incoming, title, null, null, batchId);
+        } finally {
+            try {
+                bookFileStorage.delete(incoming.getPath());
+            } catch (IOException ignored) {
+            }
+        }
+    }
 
+    private IngestionJobResponse createBook(User user, StoredFile incoming, String title, String author, String description,
+                                            UUID batchId) {
         try {
-            EpubDto epubDto = epubService.parseEpubFromFilePath(filePath);
+            // duplikat już istniejącego pliku tylko podbija licznik referencji
+            Path blob = bookBlobStore.acquire(incoming);
 
-            File jsonFile = new File(filePath + ".json");
-            objectMapper.writeValue(jsonFile, epubDto);
+            Book book = Book.builder()
+                    .owner(user)
+                    .title(title)
+                    .author(author)
+                    .description(description)
+                    .filePath(blob.toString())
+                    .contentSha256(incoming.getSha256())
+                    .fileSize(incoming.getSize())
+                    .uploadedAt(LocalDateTime.now())
+                    .status(BookStatus.PENDING)
+                    .build();
 
-        } catch (Exception e) {
-            throw new RuntimeException("Could not parse EPUB", e);
+            bookRepository.save(book);
+            userRepository.bumpLibraryVersion(user.getId());
+            return batchId != null ? ingestionService.submitBulk(book, batchId) : ingestionService.submit(book);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store file", e);
         }
+    }
 
-        return mapToResponse(book);
+    @Override
+    public String getLibraryTag(Long userId, BookListRequest request) {
+        if (resolveSort(request) == BookSort.LAST_READ) {
+            return null;
+        }
+        long version = userRepository.findLibraryVersion(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Użytkownik o ID " + userId + " nie istnieje"));
+        // parametry są w URL-u, więc każda strona i tak ma swój wpis w cache - tu wystarczy wersja biblioteki
+        return "W/\"lib-" + userId + "-" + version + "\"";
     }
 
     @Override
-    public List<BookResponse> getUserBooks(Long userId) {
-        return bookRepository.findByOwnerId(userId)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    public BookPageResponse getUserBooks(Long userId, BookListRequest request) {
+        BookSort sort = resolveSort(request);
+        boolean descending = resolveDescending(request, sort);
+        int limit = request.getLimit() != null ? request.getLimit() : defaultPageSize;
+        if (limit < 1 || limit > maxPageSize) {
+            throw new InvalidRequestException("Limit musi być z zakresu 1-" + maxPageSize);
+        }
+        LibraryCursor after = StringUtils.hasText(request.getAfter())
+                ? LibraryCursor.decode(request.getAfter(), sort, descending)
+                : null;
+
+        // o jeden więcej - tak wiemy, czy jest następna strona, bez osobnego COUNT
+        List<BookLibraryEntry> rows = bookRepository.findLibraryPage(userId, BookLibraryQuery.builder()
+                .sort(sort)
+                .descending(descending)
+                .status(request.getStatus())
+                .text(request.getQ())
+                .afterKey(after != null ? after.key() : null)
+                .afterId(after != null ? after.id() : null)
+                .limit(limit + 1)
+                .build());
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            BookLibraryEntry last = rows.get(limit - 1);
+            nextCursor = new LibraryCursor(sort, descending, sort.keyOf(last), last.getId()).encode();
+        }
+        return BookPageResponse.builder()
+                .items(rows.stream().map(this::mapToResponse).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .build();
     }
 
     @Override
+    @Transactional
     public void deleteBook(Long userId, Long bookId) {
         Book book = getBookByIdAndUser(userId, bookId);
+        bookRepository.delete(book);
+        userRepository.bumpLibraryVersion(userId);
 
-        File file = new File(book.getFilePath());
-        if (file.exists()) file.delete();
-
-        File json = new File(book.getFilePath() + ".json");
-        if (json.exists()) json.delete();
+        if (book.getContentSha256() != null) {
+            // plik i treść są wspólne z innymi książkami o tym samym skrócie
+            bookBlobStore.release(book.getContentSha256());
+            return;
+        }
 
-        bookRepository.delete(book);
+        // książki sprzed blobów - plik należy tylko do nich, ale kasujemy go dopiero po commicie
+        String filePath = book.getFilePath();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    bookFileStorage.delete(Path.of(filePath));
+                    bookContentStore.delete(filePath);
+                } catch (IOException e) {
+                    log.warn("Nie udało się usunąć plików książki {}: {}", bookId, e.getMessage());
+                }
+            }
+        });
     }
 
     @Override
     public Book getBookByIdAndUser(Long userId, Long bookId) {
-        return bookRepository.findById(bookId)
-                .filter(b -> b.getOwner().getId().equals(userId))
-                .orElseThrow(() -> new RuntimeException("Book not found or access denied"));
+        // cudza książka wygląda jak nieistniejąca - nie zdradzamy, że takie ID jest zajęte
+        return bookRepository.findByIdAndOwnerId(bookId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Książka", bookId));
     }
 
     @Override
-    public EpubDto getParsedBook(Long userId, Long bookId) {
-        Book book = getBookByIdAndUser(userId, bookId);
+    public String getContentTag(Book book) {
+        if (book.getContentSha256() == null) {
+            return null; // książki sprzed SHA-256 - nie ma z czego zbudować stabilnego ETagu
+        }
+        // treść zależy od pliku i od formatu w jakim ją trzymamy
+        return book.getContentSha256() + "-v" + BookContentFile.FORMAT_VERSION;
+    }
 
-        File jsonFile = new File(book.getFilePath() + ".json");
+    @Override
+    public BookContentStream openBookContent(Book book) {
+        return out -> {
+            // rozdział po rozdziale z pliku treści - całej książki nie składamy w pamięci
+            try (BookContentFile content = openContent(book)) {
+                bookContentJsonWriter.write(content, out);
+            }
+        };
+    }
 
-        try {
-            if (jsonFile.exists()) {
-                return objectMapper.readValue(jsonFile, EpubDto.class);
+    @Override
+    public List<ChapterSummaryDto> getTableOfContents(Book book) {
+        Long bookId = book.getId();
+        List<BookChapter> indexed = bookChapterRepository.findByBookIdOrderByChapterIndexAsc(bookId);
+        if (!indexed.isEmpty()) {
+            return indexed.stream()
+                    .map(c -> ChapterSummaryDto.builder()
+                            .index(c.getChapterIndex())
+                            .title(c.getTitle())
+                            .length(c.getTextLength())
+                            .build())
+                    .collect(Collectors.toList());
+        }
+
+        // książki sprzed tabeli book_chapters - spis bierzemy z nagłówka pliku i od razu go zapisujemy
+        try (BookContentFile content = openContent(book)) {
+            List<BookChapter> rows = new ArrayList<>(content.getChapterCount());
+            List<ChapterSummaryDto> toc = new ArrayList<>(content.getChapterCount());
+            for (int i = 0; i < content.getChapterCount(); i++) {
+                rows.add(BookChapter.builder()
+                        .bookId(bookId)
+                        .chapterIndex(i)
+                        .title(content.getChapterTitle(i))
+                        .textLength(content.getChapterTextLength(i))
+                        .build());
+                toc.add(ChapterSummaryDto.builder()
+                        .index(i)
+                        .title(content.getChapterTitle(i))
+                        .length(content.getChapterTextLength(i))
+                        .build());
             }
+            bookChapterRepository.insertChapters(rows);
+            return toc;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load table of contents", e);
+        }
+    }
+
+    @Override
+    public ChapterDto getChapter(Book book, int chapterIndex) {
+        Long bookId = book.getId();
+        try (BookContentFile content = openContent(book)) {
+            if (chapterIndex < 0 || chapterIndex >= content.getChapterCount()) {
+                throw new ResourceNotFoundException("Rozdział " + chapterIndex + " nie istnieje w książce o ID " + bookId);
+            }
+            return content.readChapter(chapterIndex);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load chapter", e);
+        }
+    }
+
+    @Override
+    public String getBookPreview(Long userId, Long bookId) {
+        Optional<String> stored = bookPreviewRepository.findPreview(bookId, userId);
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+
+        // książki przetworzone przed book_previews - liczymy raz i zapisujemy
+        Book book = getReadyBook(userId, bookId);
+        return bookArtifactService.savePreview(book, loadParsedBook(book));
+    }
+
+    @Override
+    public List<BookPreviewResponse> getBookPreviews(Long userId, List<Long> bookIds) {
+        return bookPreviewRepository.findByOwnerIdAndBookIdIn(userId, bookIds);
+    }
 
-            EpubDto dto = epubService.parseEpubFromFilePath(book.getFilePath());
-            objectMapper.writeValue(jsonFile, dto);
-            return dto;
+    private EpubDto loadParsedBook(Book book) {
+        try {
+            Optional<EpubDto> stored = bookContentStore.readBook(book.getFilePath());
+            if (stored.isPresent()) {
+                return stored.get();
+            }
+            return bookArtifactService.buildArtifacts(book);
 
         } catch (Exception e) {
             throw new RuntimeException("Failed to load EPUB content", e);
         }
     }
 
-    @Override
-    public String getBookPreview(Long userId, Long bookId) {
-        EpubDto dto = getParsedBook(userId, bookId);
-        return epubService.generatePreview(dto, 3000);
+    private BookContentFile openContent(Book book) throws IOException {
+        Optional<BookContentFile> content = bookContentStore.open(book.getFilePath());
+        if (content.isPresent()) {
+            return content.get();
+        }
+
+        bookArtifactService.buildArtifacts(book);
+        return bookContentStore.open(book.getFilePath())
+                .orElseThrow(() -> new IOException("Book content missing after rebuild: " + book.getFilePath()));
     }
 
-    private BookResponse mapToResponse(Book book) {
+    private BookSort resolveSort(BookListRequest request) {
+        if (!StringUtils.hasText(request.getSort())) {
+            return BookSort.UPLOADED_AT;
+        }
+        return BookSort.fromParam(request.getSort())
+                .orElseThrow(() -> new InvalidRequestException("Nieznane sortowanie: " + request.getSort()));
+    }
+
+    private boolean resolveDescending(BookListRequest request, BookSort sort) {
+        if (!StringUtils.hasText(request.getDirection())) {
+            return sort.isDescendingByDefault();
+        }
+        return switch (request.getDirection().toLowerCase(Locale.ROOT)) {
+            case "asc" -> false;
+            case "desc" -> true;
+            default -> throw new InvalidRequestException("Kierunek musi być asc albo desc");
+        };
+    }
+
+    private BookResponse mapToResponse(BookLibraryEntry entry) {
         return BookResponse.builder()
-                .id(book.getId())
-                .title(book.getTitle())
-                .author(book.getAuthor())
-                .description(book.getDescription())
-                .uploadedAt(book.getUploadedAt())
+                .id(entry.getId())
+                .title(entry.getTitle())
+                .author(entry.getAuthor())
+                .description(entry.getDescription())
+                .uploadedAt(entry.getUploadedAt())
+                .status(entry.getStatus())
                 .build();
     }
+
+    // dopóki kolejka nie skończy, treści nie ma - nie odbudowujemy jej równolegle z workerem
+    @Override
+    public Book getReadyBook(Long userId, Long bookId) {
+        Book book = getBookByIdAndUser(userId, bookId);
+        if (book.getStatus() != BookStatus.READY) {
+            throw new BookNotReadyException(bookId, book.getStatus().name());
+        }
+        return book;
+    }
 }
@@ -0,0 +1,21 @@
+package org.example.novelreader.service;
+
+import org.example.novelreader.dto.StagedBookResponse;
+import org.example.novelreader.entity.StagedUpload;
+import org.example.novelreader.storage.StoredFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.UUID;
+
+/*
+ * Pierwsza faza uploadu: plik przychodzi raz, razem z parsowaniem metadanych.
+ * Zatwierdzenie (BookService.commitStagedBook) zabiera go stąd bez ponownego przesyłania.
+ */
+public interface BookStagingService {
+    StagedBookResponse stage(Long userId, MultipartFile file);
+    // plik już leży na dysku (np. złożony z kawałków) - przejmujemy go, przy błędzie jest usuwany
+    StagedBookResponse stage(Long userId, StoredFile incoming);
+    // usuwa wpis i oddaje go wywołującemu - musi być wołane w transakcji tworzącej książkę
+    StagedUpload claim(Long userId, UUID token);
+    void purgeExpired();
+}
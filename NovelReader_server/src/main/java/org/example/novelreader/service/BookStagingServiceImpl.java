@@ -0,0 +1,133 @@
+package org.example.novelreader.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.novelreader.dto.MetadataDto;
+import org.example.novelreader.dto.StagedBookResponse;
+import org.example.novelreader.entity.StagedUpload;
+import org.example.novelreader.exception.InvalidUploadException;
+import org.example.novelreader.exception.ResourceNotFoundException;
+import org.example.novelreader.repository.StagedUploadRepository;
+import org.example.novelreader.storage.BookFileStorage;
+import org.example.novelreader.storage.StoredFile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookStagingServiceImpl implements BookStagingService {
+
+    private static final int PURGE_BATCH = 100;
+
+    private final StagedUploadRepository stagedUploadRepository;
+    private final BookFileStorage bookFileStorage;
+    private final EpubService epubService;
+
+    @Value("${book.staging.ttl}")
+    private Duration ttl;
+
+    @Override
+    public StagedBookResponse stage(Long userId, MultipartFile file) {
+        StoredFile incoming;
+        try {
+            incoming = bookFileStorage.receive(file);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store file", e);
+        }
+        return stage(userId, incoming);
+    }
+
+    @Override
+    public StagedBookResponse stage(Long userId, StoredFile incoming) {
+        MetadataDto metadata;
+        try {
+            metadata = epubService.parseMetadataFromFilePath(incoming.getPath().toString());
+        } catch (IOException | RuntimeException e) {
+            // uszkodzony albo nie-EPUB plik to błąd klienta, nie serwera
+            deleteQuietly(incoming.getPath().toString());
+            throw new InvalidUploadException("Plik nie jest poprawnym EPUB-em", e);
+        }
+
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            StagedUpload staged = stagedUploadRepository.save(StagedUpload.builder()
+                    .token(UUID.randomUUID())
+                    .userId(userId)
+                    .filePath(incoming.getPath().toString())
+                    .sha256(incoming.getSha256())
+                    .fileSize(incoming.getSize())
+                    .title(metadata.getTitle())
+                    .author(metadata.getAuthor())
+                    .description(metadata.getDescription())
+                    .createdAt(now)
+                    .expiresAt(now.plus(ttl))
+                    .build());
+
+            return StagedBookResponse.builder()
+                    .stagingToken(staged.getToken())
+                    .expiresAt(staged.getExpiresAt())
+                    .metadata(metadata)
+                    .build();
+        } catch (RuntimeException e) {
+            deleteQuietly(incoming.getPath().toString());
+            throw e;
+        }
+    }
+
+    @Override
+    @Transactional
+    public StagedUpload claim(Long userId, UUID token) {
+        StagedUpload staged = stagedUploadRepository.lockByTokenAndUserId(token, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Przesłany plik " + token + " nie istnieje lub został już użyty"));
+
+        if (staged.getExpiresAt().isBefore(LocalDateTime.now())) {
+            // wiersz i plik zostawiamy dla purgeExpired - ta transakcja i tak się wycofa
+            throw new ResourceNotFoundException("Przesłany plik " + token + " wygasł, wyślij go ponownie");
+        }
+        stagedUploadRepository.delete(staged);
+        // blob dostaje własne dowiązanie - plik ze staging znika dopiero, gdy książka jest już zapisana
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deleteQuietly(staged.getFilePath());
+            }
+        });
+        return staged;
+    }
+
+    // kilka instancji może sprzątać naraz - SKIP LOCKED rozdziela wiersze między nie
+    @Override
+    @Scheduled(fixedDelayString = "${book.staging.cleanup-interval-ms}")
+    @Transactional
+    public void purgeExpired() {
+        List<StagedUpload> expired = stagedUploadRepository.lockExpired(LocalDateTime.now(), PURGE_BATCH);
+        for (StagedUpload staged : expired) {
+            stagedUploadRepository.delete(staged);
+            deleteQuietly(staged.getFilePath());
+        }
+        if (!expired.isEmpty()) {
+            log.info("Usunięto {} niezatwierdzonych plików", expired.size());
+        }
+    }
+
+    private void deleteQuietly(String filePath) {
+        try {
+            bookFileStorage.delete(Path.of(filePath));
+        } catch (IOException e) {
+            log.warn("Nie udało się usunąć pliku {}: {}", filePath, e.getMessage());
+        }
+    }
+}
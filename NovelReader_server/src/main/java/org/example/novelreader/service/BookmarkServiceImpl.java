@@ -1,41 +1,50 @@
 package org.example.novelreader.service;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.example.novelreader.dto.BookmarkRequest;
 import org.example.novelreader.dto.BookmarkResponse;
-import org.example.novelreader.dto.ChapterDto;
-import org.example.novelreader.dto.EpubDto;
 import org.example.novelreader.entity.Book;
+import org.example.novelreader.entity.BookChapter;
+import org.example.novelreader.entity.BookChapterId;
 import org.example.novelreader.entity.Bookmark;
 import org.example.novelreader.entity.User;
 import org.example.novelreader.exception.ResourceNotFoundException;
+import org.example.novelreader.repository.BookChapterRepository;
 import org.example.novelreader.repository.BookRepository;
 import org.example.novelreader.repository.BookmarkRepository;
 import org.example.novelreader.repository.UserRepository;
+import org.example.novelreader.storage.BookContentFile;
+import org.example.novelreader.storage.BookContentStore;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 @Transactional
 public class BookmarkServiceImpl implements BookmarkService {
 
     private final BookmarkRepository bookmarkRepository;
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
-    private final EpubService epubService;
+    private final BookChapterRepository bookChapterRepository;
+    private final BookContentStore bookContentStore;
 
     @Override
     public BookmarkResponse createBookmark(Long userId, BookmarkRequest request) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Użytkownik", userId));
-
-        Book book = bookRepository.findById(request.getBookId())
+        // zakładka tylko we własnej książce - jedno zapytanie z warunkiem na właściciela
+        Book book = bookRepository.findByIdAndOwnerId(request.getBookId(), userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Książka", request.getBookId()));
+        User user = userRepository.getReferenceById(userId);
 
         Bookmark bookmark = Bookmark.builder()
                 .user(user)
@@ -50,7 +59,7 @@ public class BookmarkServiceImpl implements BookmarkService {
                 .build();
 
         Bookmark saved = bookmarkRepository.save(bookmark);
-        return mapToResponse(saved);
+        return mapToResponse(List.of(saved)).get(0);
     }
 
     @Override
@@ -67,7 +76,7 @@ public class BookmarkServiceImpl implements BookmarkService {
         bookmark.setColor(request.getColor());
 
         Bookmark saved = bookmarkRepository.save(bookmark);
-        return mapToResponse(saved);
+        return mapToResponse(List.of(saved)).get(0);
     }
 
     @Override
@@ -75,25 +84,20 @@ public class BookmarkServiceImpl implements BookmarkService {
     public BookmarkResponse getBookmark(Long userId, Long bookmarkId) {
         Bookmark bookmark = bookmarkRepository.findByIdAndUserId(bookmarkId, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Zakładka", bookmarkId));
-        return mapToResponse(bookmark);
+        return mapToResponse(List.of(bookmark)).get(0);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<BookmarkResponse> getBookmarksForBook(Long userId, Long bookId) {
-        return bookmarkRepository.findByUserIdAndBookIdOrderByChapterIndexAscCharacterOffsetAsc(userId, bookId)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapToResponse(
+                bookmarkRepository.findByUserIdAndBookIdOrderByChapterIndexAscCharacterOffsetAsc(userId, bookId));
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<BookmarkResponse> getAllUserBookmarks(Long userId) {
-        return bookmarkRepository.findByUserIdOrderByCreatedAtDesc(userId)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapToResponse(bookmarkRepository.findByUserIdOrderByCreatedAtDesc(userId));
     }
 
     @Override
@@ -115,21 +119,56 @@ public class BookmarkServiceImpl implements BookmarkService {
                 userId, bookId, chapterIndex, characterOffset);
     }
 
-    private BookmarkResponse mapToResponse(Bookmark bookmark) {
-        String chapterTitle = null;
+    // tytuły tylko tych rozdziałów, na które wskazują zakładki - jednym zapytaniem do book_chapters
+    private List<BookmarkResponse> mapToResponse(List<Bookmark> bookmarks) {
+        Set<BookChapterId> referenced = bookmarks.stream()
+                .map(b -> new BookChapterId(b.getBook().getId(), b.getChapterIndex()))
+                .collect(Collectors.toSet());
+
+        Map<BookChapterId, String> chapterTitles = new HashMap<>();
+        for (BookChapter chapter : bookChapterRepository.findByIds(referenced)) {
+            chapterTitles.put(new BookChapterId(chapter.getBookId(), chapter.getChapterIndex()), chapter.getTitle());
+        }
+
+        // brak tytułu to albo zakładka poza spisem, albo książka sprzed book_chapters - sprawdzamy tylko te książki
+        Map<Long, Book> unindexed = new HashMap<>();
+        for (Bookmark bookmark : bookmarks) {
+            if (!chapterTitles.containsKey(new BookChapterId(bookmark.getBook().getId(), bookmark.getChapterIndex()))) {
+                unindexed.putIfAbsent(bookmark.getBook().getId(), bookmark.getBook());
+            }
+        }
+        if (!unindexed.isEmpty()) {
+            bookChapterRepository.findIndexedBookIds(unindexed.keySet()).forEach(unindexed::remove);
+        }
 
+        // książki dodane przed book_chapters - tytuły z nagłówka pliku treści (bez parsowania EPUB-a)
+        unindexed.values().forEach(book -> readTitlesFromContent(book, chapterTitles));
+
+        return bookmarks.stream()
+                .map(b -> mapToResponse(b, chapterTitles.get(new BookChapterId(b.getBook().getId(), b.getChapterIndex()))))
+                .collect(Collectors.toList());
+    }
+
+    private void readTitlesFromContent(Book book, Map<BookChapterId, String> chapterTitles) {
+        if (book.getFilePath() == null) {
+            return;
+        }
         try {
-            Book book = bookmark.getBook();
-            if (book.getFilePath() != null) {
-                EpubDto epub = epubService.parseEpubFromFilePath(book.getFilePath());
-                List<ChapterDto> chapters = epub.getChapters();
-                if (bookmark.getChapterIndex() < chapters.size()) {
-                    chapterTitle = chapters.get(bookmark.getChapterIndex()).getTitle();
+            Optional<BookContentFile> content = bookContentStore.open(book.getFilePath());
+            if (content.isEmpty()) {
+                return;
+            }
+            try (BookContentFile file = content.get()) {
+                for (int i = 0; i < file.getChapterCount(); i++) {
+                    chapterTitles.put(new BookChapterId(book.getId(), i), file.getChapterTitle(i));
                 }
             }
         } catch (IOException e) {
+            log.warn("Nie udało się odczytać spisu rozdziałów książki {}: {}", book.getId(), e.getMessage());
         }
+    }
 
+    private BookmarkResponse mapToResponse(Bookmark bookmark, String chapterTitle) {
         return BookmarkResponse.builder()
                 .id(bookmark.getId())
                 .bookId(bookmark.getBook().getId())
@@ -147,4 +186,3 @@ public class BookmarkServiceImpl implements BookmarkService {
                 .build();
     }
 }
-
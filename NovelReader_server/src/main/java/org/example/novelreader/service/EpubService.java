@@ -2,7 +2,7 @@ package org.example.novelreader.service;
 
 
 import org.example.novelreader.dto.EpubDto;
-import org.example.novelreader.dto.ChapterDto;
+import org.example.novelreader.dto.MetadataDto;
 import org.springframework.web.multipart.MultipartFile;
 
 
@@ -11,6 +11,8 @@ import java.io.IOException;
 // parsowanie epubow - osobny serwis zeby BookService nie robil wszystkiego (SRP - Single Responsibility)
 public interface EpubService {
     EpubDto parseEpub(MultipartFile file) throws IOException;
+    MetadataDto parseMetadata(MultipartFile file) throws IOException;
+    MetadataDto parseMetadataFromFilePath(String filePath) throws IOException;
     EpubDto parseEpubFromFilePath(String filePath) throws IOException;
     String generatePreview(EpubDto epubDto, int maxChars);
 }
\ No newline at end of file
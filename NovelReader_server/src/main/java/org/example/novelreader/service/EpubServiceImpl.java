@@ -1,100 +1,138 @@
 package org.example.novelreader.service;
 
 
-import lombok.RequiredArgsConstructor;
 import org.example.novelreader.dto.ChapterDto;
 import org.example.novelreader.dto.EpubDto;
 import org.example.novelreader.dto.MetadataDto;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
+import org.example.novelreader.epub.ChapterText;
+import org.example.novelreader.epub.ChapterTextExtractor;
+import org.example.novelreader.epub.EpubArchive;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
-import nl.siegmann.epublib.domain.Resource;
-import nl.siegmann.epublib.domain.SpineReference;
-import nl.siegmann.epublib.epub.EpubReader;
 
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 
 @Service
-@RequiredArgsConstructor
 public class EpubServiceImpl implements EpubService {
 
+    // krótkie książki szybciej przerobić w miejscu niż rozsyłać po puli
+    private static final int PARALLEL_THRESHOLD = 4;
+
+    private final ForkJoinPool parsePool;
+    private final ChapterTextExtractor chapterTextExtractor;  // jsoup albo streaming, patrz epub.text-extractor
+
+    public EpubServiceImpl(@Qualifier("epubParsePool") ForkJoinPool parsePool, ChapterTextExtractor chapterTextExtractor) {
+        this.parsePool = parsePool;
+        this.chapterTextExtractor = chapterTextExtractor;
+    }
 
     @Override
     public EpubDto parseEpub(MultipartFile file) throws IOException {
-        try (InputStream in = file.getInputStream()) {
-            return parseEpubFromStream(in);
+        // multipart i tak leży na dysku - przenosimy go do pliku tymczasowego
+        // zamiast czytać cały strumień do pamięci
+        Path tmp = Files.createTempFile("epub-", ".epub");
+        try {
+            file.transferTo(tmp.toFile());
+            return parseEpubFromFilePath(tmp.toString());
+        } finally {
+            Files.deleteIfExists(tmp);
         }
     }
 
 
     @Override
-    public EpubDto parseEpubFromFilePath(String filePath) throws IOException {
-        try (InputStream in = new FileInputStream(filePath)) {
-            return parseEpubFromStream(in);
+    public MetadataDto parseMetadata(MultipartFile file) throws IOException {
+        Path tmp = Files.createTempFile("epub-", ".epub");
+        try {
+            file.transferTo(tmp.toFile());
+            return parseMetadataFromFilePath(tmp.toString());
+        } finally {
+            Files.deleteIfExists(tmp);
         }
     }
 
 
-    private EpubDto parseEpubFromStream(InputStream in) throws IOException {
-        EpubReader reader = new EpubReader();
-        nl.siegmann.epublib.domain.Book epub = reader.readEpub(in);
-
-        String title = Optional.ofNullable(epub.getMetadata().getTitles()).filter(l -> !l.isEmpty()).map(l -> l.get(0)).orElse(null);
-        String author = epub.getMetadata().getAuthors().stream().findFirst().map(a -> a.getFirstname() + " " + a.getLastname()).orElse(null);
-        String language = epub.getMetadata().getLanguage();
-        String identifier = epub.getMetadata().getIdentifiers().stream().findFirst().map(id -> id.getValue()).orElse(null);
-        String description = epub.getMetadata().getDescriptions().stream().findFirst().orElse(null);
+    @Override
+    public MetadataDto parseMetadataFromFilePath(String filePath) throws IOException {
+        return EpubArchive.readMetadata(Paths.get(filePath));
+    }
 
 
-        MetadataDto meta = MetadataDto.builder()
-                .title(title)
-                .author(author)
-                .language(language)
-                .identifier(identifier)
-                .description(description)
-                .build();
+    @Override
+    public EpubDto parseEpubFromFilePath(String filePath) throws IOException {
+        try (EpubArchive archive = EpubArchive.open(Paths.get(filePath))) {
+            List<ChapterDto> chapters = archive.getSpineSize() < PARALLEL_THRESHOLD
+                    ? readChaptersSequentially(archive)
+                    : readChaptersInParallel(archive);
+
+            return EpubDto.builder()
+                    .metadata(archive.getMetadata())
+                    .chapters(chapters)
+                    .build();
+        }
+    }
 
 
-        List<ChapterDto> chapters = new ArrayList<>();
+    private List<ChapterDto> readChaptersSequentially(EpubArchive archive) throws IOException {
+        List<ChapterDto> chapters = new ArrayList<>(archive.getSpineSize());
+        for (int idx = 0; idx < archive.getSpineSize(); idx++) {
+            chapters.add(readChapter(archive, idx));
+        }
+        return chapters;
+    }
 
+    // ZipFile pozwala czytać wpisy z wielu wątków, więc każde zadanie samo wyciąga swój rozdział;
+    // wyniki zbieramy w kolejności spine, niezależnie od tego który skończy pierwszy
+    private List<ChapterDto> readChaptersInParallel(EpubArchive archive) throws IOException {
+        List<ForkJoinTask<ChapterDto>> tasks = new ArrayList<>(archive.getSpineSize());
+        for (int idx = 0; idx < archive.getSpineSize(); idx++) {
+            int chapterIndex = idx;
+            tasks.add(parsePool.submit(() -> readChapter(archive, chapterIndex)));
+        }
 
-        List<SpineReference> spine = epub.getSpine().getSpineReferences();
-        int idx = 0;
-        for (SpineReference ref : spine) {
-            Resource res = ref.getResource();
-            String href = res.getHref();
-            String raw = null;
-            try (InputStream ris = res.getInputStream()) {
-                raw = new String(ris.readAllBytes());
+        List<ChapterDto> chapters = new ArrayList<>(tasks.size());
+        try {
+            for (ForkJoinTask<ChapterDto> task : tasks) {
+                chapters.add(task.get());
             }
-
-            Document doc = Jsoup.parse(raw);
-            String text = doc.text();
-            String chapterTitle = Optional.ofNullable(doc.selectFirst("title")).map(org.jsoup.nodes.Element::text).orElse("Chapter " + (idx + 1));
-
-
-            ChapterDto chapter = ChapterDto.builder()
-                    .index(idx)
-                    .title(chapterTitle)
-                    .html(raw)
-                    .text(text)
-                    .build();
-
-
-            chapters.add(chapter);
-            idx++;
+            return chapters;
+        } catch (ExecutionException e) {
+            tasks.forEach(t -> t.cancel(false));
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException("Failed to parse chapter", cause);
+        } catch (InterruptedException e) {
+            tasks.forEach(t -> t.cancel(false));
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing chapters", e);
         }
+    }
 
+    private ChapterDto readChapter(EpubArchive archive, int idx) throws IOException {
+        ChapterText chapter = chapterTextExtractor.extract(archive.readSpineItem(idx));
+        String chapterTitle = chapter.getTitle() != null ? chapter.getTitle() : "Chapter " + (idx + 1);
 
-        return EpubDto.builder()
-                .metadata(meta)
-                .chapters(chapters)
+        return ChapterDto.builder()
+                .index(idx)
+                .title(chapterTitle)
+                .html(chapter.getHtml())
+                .text(chapter.getText())
                 .build();
     }
 
@@ -0,0 +1,226 @@
+package org.example.novelreader.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.novelreader.entity.Book;
+import org.example.novelreader.entity.BookStatus;
+import org.example.novelreader.entity.IngestionJob;
+import org.example.novelreader.entity.IngestionJobStatus;
+import org.example.novelreader.repository.BookRepository;
+import org.example.novelreader.repository.IngestionJobRepository;
+import org.example.novelreader.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/*
+ * Przejścia stanów zadania w tabeli ingestion_jobs. Każda metoda to osobna krótka transakcja -
+ * samo parsowanie dzieje się poza nimi, żeby nie trzymać blokad na wierszach przez kilka sekund.
+ *
+ *   QUEUED -> RUNNING -> SUCCEEDED
+ *                     -> QUEUED (kolejna próba z backoffem) -> ... -> DEAD
+ *
+ * Zadania z importu wsadowego (priority > 0) idą po zwykłych uploadach i mają własne limity jednocześnie
+ * przetwarzanych - w całym klastrze i na użytkownika - więc import 2000 książek nie zajmuje wszystkich workerów.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IngestionQueue {
+
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    private final IngestionJobRepository jobRepository;
+    private final BookRepository bookRepository;
+    private final UserRepository userRepository;
+
+    @Value("${ingestion.max-attempts}")
+    private int maxAttempts;
+
+    @Value("${ingestion.retry-backoff}")
+    private Duration retryBackoff;
+
+    @Value("${ingestion.lease-timeout}")
+    private Duration leaseTimeout;
+
+    @Value("${ingestion.max-bulk-running}")
+    private int maxBulkRunning;
+
+    @Value("${ingestion.max-bulk-running-per-user}")
+    private int maxBulkRunningPerUser;
+
+    @Transactional
+    public IngestionJob enqueue(Book book, int priority, UUID batchId) {
+        IngestionJob job = IngestionJob.builder()
+                .id(UUID.randomUUID())
+                .bookId(book.getId())
+                .userId(book.getOwner().getId())
+                .priority(priority)
+                .batchId(batchId)
+                .status(IngestionJobStatus.QUEUED)
+                .attempts(0)
+                .maxAttempts(maxAttempts)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+        return jobRepository.save(job);
+    }
+
+    @Transactional
+    public List<IngestionJob> claim(String workerId, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        // z zapasem - część kandydatów może odpaść na limitach importu
+        List<IngestionJob> candidates = jobRepository.lockQueued(now, limit * 2, maxBulkRunningPerUser);
+
+        // liczniki z bazy bez blokady - dwie instancje naraz mogą przekroczyć limit o kilka zadań, to nie szkodzi
+        long bulkRunning = 0;
+        Map<Long, Long> bulkRunningPerUser = new HashMap<>();
+        Set<Long> bulkUsers = candidates.stream()
+                .filter(IngestionJob::isBulk)
+                .map(IngestionJob::getUserId)
+                .collect(Collectors.toSet());
+        if (!bulkUsers.isEmpty()) {
+            bulkRunning = jobRepository.countByStatusAndPriorityGreaterThan(
+                    IngestionJobStatus.RUNNING, IngestionJob.PRIORITY_INTERACTIVE);
+            for (IngestionJobRepository.UserJobCount count : jobRepository.countRunningBulkByUser(bulkUsers)) {
+                bulkRunningPerUser.put(count.getUserId(), count.getJobs());
+            }
+        }
+
+        List<IngestionJob> jobs = new ArrayList<>(limit);
+        for (IngestionJob job : candidates) {
+            if (jobs.size() == limit) {
+                break;
+            }
+            if (job.isBulk()) {
+                long userRunning = bulkRunningPerUser.getOrDefault(job.getUserId(), 0L);
+                if (bulkRunning >= maxBulkRunning || userRunning >= maxBulkRunningPerUser) {
+                    continue; // zostaje w kolejce, blokada puści z końcem transakcji
+                }
+                bulkRunning++;
+                bulkRunningPerUser.put(job.getUserId(), userRunning + 1);
+            }
+            jobs.add(job);
+            job.setStatus(IngestionJobStatus.RUNNING);
+            job.setLockedBy(workerId);
+            job.setLockedAt(now);
+            job.setAttempts(job.getAttempts() + 1);
+            setBookStatus(job.getBookId(), BookStatus.PROCESSING);
+        }
+        return jobs;
+    }
+
+    @Transactional
+    public void complete(UUID jobId, String workerId) {
+        IngestionJob job = ownedJob(jobId, workerId);
+        if (job == null) {
+            return;
+        }
+        job.setStatus(IngestionJobStatus.SUCCEEDED);
+        job.setFinishedAt(LocalDateTime.now());
+        job.setLockedBy(null);
+        job.setLockedAt(null);
+        setBookStatus(job.getBookId(), BookStatus.READY);
+    }
+
+    @Transactional
+    public void fail(UUID jobId, String workerId, String error) {
+        IngestionJob job = ownedJob(jobId, workerId);
+        if (job != null) {
+            retryOrBury(job, error);
+        }
+    }
+
+    // worker nie dał rady przyjąć zadania (pełna pula) - oddajemy je bez liczenia próby
+    @Transactional
+    public void release(UUID jobId, String workerId) {
+        IngestionJob job = ownedJob(jobId, workerId);
+        if (job == null) {
+            return;
+        }
+        job.setStatus(IngestionJobStatus.QUEUED);
+        job.setAttempts(job.getAttempts() - 1);
+        job.setLockedBy(null);
+        job.setLockedAt(null);
+        setBookStatus(job.getBookId(), BookStatus.PENDING);
+    }
+
+    // długie parsowanie nie może wyglądać jak padnięty worker - dzierżawa liczy się od ostatniego heartbeatu
+    @Transactional
+    public int renewLeases(String workerId, Collection<UUID> jobIds) {
+        if (jobIds.isEmpty()) {
+            return 0;
+        }
+        int renewed = jobRepository.renewLeases(jobIds, workerId, LocalDateTime.now());
+        if (renewed < jobIds.size()) {
+            log.warn("Worker {} stracił dzierżawę {} z {} zadań", workerId, jobIds.size() - renewed, jobIds.size());
+        }
+        return renewed;
+    }
+
+    @Transactional
+    public int reclaimExpired(int limit) {
+        List<IngestionJob> expired = jobRepository.lockExpired(LocalDateTime.now().minus(leaseTimeout), limit);
+        for (IngestionJob job : expired) {
+            log.warn("Zadanie {} (książka {}) utknęło na workerze {}, przywracam do kolejki",
+                    job.getId(), job.getBookId(), job.getLockedBy());
+            retryOrBury(job, "Worker " + job.getLockedBy() + " nie skończył w czasie " + leaseTimeout);
+        }
+        return expired.size();
+    }
+
+    private IngestionJob ownedJob(UUID jobId, String workerId) {
+        IngestionJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return null; // książka usunięta w trakcie, zadanie poszło kaskadą
+        }
+        if (job.getStatus() != IngestionJobStatus.RUNNING || !workerId.equals(job.getLockedBy())) {
+            // dzierżawa wygasła i zadanie przejął ktoś inny - jego wynik jest ważniejszy
+            log.warn("Zadanie {} nie należy już do workera {}, pomijam wynik", jobId, workerId);
+            return null;
+        }
+        return job;
+    }
+
+    private void retryOrBury(IngestionJob job, String error) {
+        LocalDateTime now = LocalDateTime.now();
+        job.setLastError(error);
+        job.setLockedBy(null);
+        job.setLockedAt(null);
+
+        if (job.getAttempts() >= job.getMaxAttempts()) {
+            job.setStatus(IngestionJobStatus.DEAD);
+            job.setFinishedAt(now);
+            setBookStatus(job.getBookId(), BookStatus.FAILED);
+            log.error("Zadanie {} (książka {}) martwe po {} próbach: {}",
+                    job.getId(), job.getBookId(), job.getAttempts(), error);
+            return;
+        }
+
+        job.setStatus(IngestionJobStatus.QUEUED);
+        job.setNextAttemptAt(now.plus(backoff(job.getAttempts())));
+        setBookStatus(job.getBookId(), BookStatus.PENDING);
+    }
+
+    // status jest widoczny na liście książek, więc każda zmiana unieważnia jej ETag
+    private void setBookStatus(Long bookId, BookStatus status) {
+        bookRepository.updateStatus(bookId, status);
+        userRepository.bumpLibraryVersionOfBook(bookId);
+    }
+
+    // 30s, 1m, 2m, 4m... ale nie więcej niż godzina
+    private Duration backoff(int attempts) {
+        Duration delay = retryBackoff.multipliedBy(1L << Math.max(0, Math.min(attempts - 1, 20)));
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.novelreader.service;
+
+import org.example.novelreader.dto.IngestionJobResponse;
+import org.example.novelreader.entity.Book;
+
+import java.util.List;
+import java.util.UUID;
+
+// przetwarzanie książki po uploadzie idzie w tle - upload tylko zapisuje plik i zgłasza zadanie
+public interface IngestionService {
+    IngestionJobResponse submit(Book book);
+    // import wsadowy - niższy priorytet i osobne limity, żeby nie blokować zwykłych uploadów
+    IngestionJobResponse submitBulk(Book book, UUID batchId);
+    IngestionJobResponse getJob(Long userId, UUID jobId);
+    List<IngestionJobResponse> getBatch(Long userId, UUID batchId);
+    // zadania czekające i w trakcie - do limitu importu na użytkownika
+    long countPending(Long userId);
+}
@@ -0,0 +1,68 @@
+package org.example.novelreader.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.novelreader.dto.IngestionJobResponse;
+import org.example.novelreader.entity.Book;
+import org.example.novelreader.entity.IngestionJob;
+import org.example.novelreader.entity.IngestionJobStatus;
+import org.example.novelreader.exception.ResourceNotFoundException;
+import org.example.novelreader.repository.IngestionJobRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+// zgłoszenie = wiersz w ingestion_jobs, resztą zajmuje się IngestionWorker
+@Service
+@RequiredArgsConstructor
+public class IngestionServiceImpl implements IngestionService {
+
+    private final IngestionQueue ingestionQueue;
+    private final IngestionJobRepository jobRepository;
+
+    @Override
+    public IngestionJobResponse submit(Book book) {
+        return mapToResponse(ingestionQueue.enqueue(book, IngestionJob.PRIORITY_INTERACTIVE, null));
+    }
+
+    @Override
+    public IngestionJobResponse submitBulk(Book book, UUID batchId) {
+        return mapToResponse(ingestionQueue.enqueue(book, IngestionJob.PRIORITY_BULK, batchId));
+    }
+
+    @Override
+    public IngestionJobResponse getJob(Long userId, UUID jobId) {
+        IngestionJob job = jobRepository.findByIdAndUserId(jobId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Zadanie przetwarzania " + jobId + " nie zostało znalezione"));
+        return mapToResponse(job);
+    }
+
+    @Override
+    public List<IngestionJobResponse> getBatch(Long userId, UUID batchId) {
+        List<IngestionJob> jobs = jobRepository.findByBatchIdAndUserIdOrderByCreatedAt(batchId, userId);
+        if (jobs.isEmpty()) {
+            throw new ResourceNotFoundException("Import " + batchId + " nie został znaleziony");
+        }
+        return jobs.stream().map(this::mapToResponse).toList();
+    }
+
+    @Override
+    public long countPending(Long userId) {
+        return jobRepository.countByUserIdAndStatusIn(userId, EnumSet.of(IngestionJobStatus.QUEUED, IngestionJobStatus.RUNNING));
+    }
+
+    private IngestionJobResponse mapToResponse(IngestionJob job) {
+        return IngestionJobResponse.builder()
+                .jobId(job.getId())
+                .bookId(job.getBookId())
+                .batchId(job.getBatchId())
+                .status(job.getStatus())
+                .attempts(job.getAttempts())
+                .error(job.getLastError())
+                .createdAt(job.getCreatedAt())
+                .nextAttemptAt(job.getNextAttemptAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+}
@@ -0,0 +1,169 @@
+package org.example.novelreader.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.novelreader.dto.MetadataDto;
+import org.example.novelreader.entity.Book;
+import org.example.novelreader.entity.IngestionJob;
+import org.example.novelreader.repository.BookRepository;
+import org.example.novelreader.storage.BookContentStore;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Co chwilę bierze z ingestion_jobs tyle zadań, ile ma wolnych wątków, i przetwarza je na puli ingestionExecutor.
+ * Każda instancja serwera ma własnego workera - SKIP LOCKED pilnuje, żeby nie wzięły tej samej książki.
+ */
+@Component
+@Slf4j
+public class IngestionWorker {
+
+    private final IngestionQueue ingestionQueue;
+    private final BookArtifactService bookArtifactService;
+    private final EpubService epubService;
+    private final BookRepository bookRepository;
+    private final BookContentStore bookContentStore;
+    private final TaskExecutor ingestionExecutor;
+    private final int workerThreads;
+
+    private final String workerId = resolveWorkerId();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Set<UUID> runningJobs = ConcurrentHashMap.newKeySet();  // dla heartbeatu dzierżawy
+
+    public IngestionWorker(
+            IngestionQueue ingestionQueue,
+            BookArtifactService bookArtifactService,
+            EpubService epubService,
+            BookRepository bookRepository,
+            BookContentStore bookContentStore,
+            @Qualifier("ingestionExecutor") TaskExecutor ingestionExecutor,
+            @Value("${ingestion.worker-threads}") int workerThreads) {
+        this.ingestionQueue = ingestionQueue;
+        this.bookArtifactService = bookArtifactService;
+        this.epubService = epubService;
+        this.bookRepository = bookRepository;
+        this.bookContentStore = bookContentStore;
+        this.ingestionExecutor = ingestionExecutor;
+        this.workerThreads = workerThreads;
+    }
+
+    @Scheduled(fixedDelayString = "${ingestion.poll-interval-ms}")
+    public void poll() {
+        try {
+            ingestionQueue.reclaimExpired(workerThreads);
+
+            int free = workerThreads - inFlight.get();
+            if (free <= 0) {
+                return;
+            }
+            for (IngestionJob job : ingestionQueue.claim(workerId, free)) {
+                dispatch(job);
+            }
+        } catch (Exception e) {
+            // baza chwilowo niedostępna itp. - spróbujemy przy następnym tyknięciu
+            log.error("Błąd podczas pobierania zadań z kolejki", e);
+        }
+    }
+
+    // osobno od poll() - heartbeat ma iść także wtedy, gdy pobieranie nowych zadań się sypie
+    @Scheduled(fixedDelayString = "${ingestion.heartbeat-interval-ms}")
+    public void heartbeat() {
+        if (runningJobs.isEmpty()) {
+            return;
+        }
+        try {
+            ingestionQueue.renewLeases(workerId, List.copyOf(runningJobs));
+        } catch (Exception e) {
+            log.error("Nie udało się przedłużyć dzierżawy zadań workera {}", workerId, e);
+        }
+    }
+
+    private void dispatch(IngestionJob job) {
+        inFlight.incrementAndGet();
+        runningJobs.add(job.getId());
+        try {
+            ingestionExecutor.execute(() -> {
+                try {
+                    process(job);
+                } finally {
+                    runningJobs.remove(job.getId());
+                    inFlight.decrementAndGet();
+                }
+            });
+        } catch (TaskRejectedException e) {
+            runningJobs.remove(job.getId());
+            inFlight.decrementAndGet();
+            ingestionQueue.release(job.getId(), workerId);
+        }
+    }
+
+    private void process(IngestionJob job) {
+        Optional<Book> book = bookRepository.findById(job.getBookId());
+        if (book.isEmpty()) {
+            return; // usunięta zanim doszliśmy do niej, zadanie zniknęło razem z nią
+        }
+
+        try {
+            bookArtifactService.ingest(book.get());
+            if (job.getBatchId() != null) {
+                fillMetadata(book.get());
+            }
+            ingestionQueue.complete(job.getId(), workerId);
+            log.info("Książka {} przetworzona (próba {})", job.getBookId(), job.getAttempts());
+        } catch (Exception e) {
+            log.warn("Próba {} przetworzenia książki {} nieudana: {}", job.getAttempts(), job.getBookId(), e.getMessage());
+            ingestionQueue.fail(job.getId(), workerId, e.getMessage() != null ? e.getMessage() : e.getClass().getName());
+        }
+
+        if (book.get().getContentSha256() == null && !bookRepository.existsById(job.getBookId())) {
+            // książkę usunięto w trakcie - nie zostawiamy po niej pliku z treścią
+            // (treść blobów sprząta BookBlobStore razem z ostatnią referencją)
+            try {
+                bookContentStore.delete(book.get().getFilePath());
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    // import wsadowy zapisuje książkę z tytułem z nazwy pliku - prawdziwe metadane czytamy dopiero tutaj
+    private void fillMetadata(Book book) {
+        try {
+            MetadataDto metadata = epubService.parseMetadataFromFilePath(book.getFilePath());
+            if (!StringUtils.hasText(metadata.getTitle())) {
+                return;
+            }
+            bookRepository.updateMetadata(book.getId(), truncate(metadata.getTitle()),
+                    truncate(metadata.getAuthor()), metadata.getDescription());
+        } catch (Exception e) {
+            // treść jest gotowa, zostaje tytuł z nazwy pliku
+            log.warn("Nie udało się odczytać metadanych książki {}: {}", book.getId(), e.getMessage());
+        }
+    }
+
+    private static String truncate(String value) {
+        return value != null && value.length() > 255 ? value.substring(0, 255) : value;
+    }
+
+    private static String resolveWorkerId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            host = "unknown";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.novelreader.service;
+
+import org.example.novelreader.exception.InvalidRequestException;
+import org.example.novelreader.repository.BookSort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/*
+ * Kursor strony biblioteki: sortowanie, kierunek, klucz i id ostatniej książki.
+ * Dla klienta to nieprzezroczysty string (base64url) - wkleja go tylko do ?after=.
+ * Sortowanie i kierunek są w środku, żeby kursor z jednej listy nie trafił do innej.
+ */
+record LibraryCursor(BookSort sort, boolean descending, Object key, Long id) {
+
+    private static final char SEPARATOR = '|';
+
+    String encode() {
+        String raw = sort.getParam() + SEPARATOR + (descending ? "desc" : "asc") + SEPARATOR + id + SEPARATOR + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // klucz na końcu - tytuł może zawierać separator
+    static LibraryCursor decode(String cursor, BookSort sort, boolean descending) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 4);
+            if (parts.length != 4
+                    || !parts[0].equals(sort.getParam())
+                    || !parts[1].equals(descending ? "desc" : "asc")) {
+                throw new InvalidRequestException("Kursor pochodzi z listy o innym sortowaniu");
+            }
+            return new LibraryCursor(sort, descending, sort.parseKey(parts[3]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidRequestException("Nieprawidłowy kursor strony");
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.novelreader.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Postęp czytania przychodzi co kilka sekund od każdego czytelnika, a liczy się tylko ostatni.
+ * Trzymamy więc ostatni zapis per (użytkownik, książka) w pamięci i co flush-interval-ms
+ * wysyłamy wszystko jednym batchem INSERT ... ON CONFLICT DO UPDATE. Przy zamknięciu
+ * aplikacji bufor jest zapisywany od razu.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProgressWriteBuffer {
+
+    // wiersz tylko gdy książka i użytkownik nadal istnieją - usunięta w międzyczasie książka nie wywala całej paczki
+    private static final String UPSERT_SQL = """
+            INSERT INTO book_progress (user_id, book_id, chapter_index, offset_in_chapter, updated_at)
+            SELECT ?, ?, ?, ?, ?
+            WHERE EXISTS (SELECT 1 FROM books WHERE id = ?) AND EXISTS (SELECT 1 FROM users WHERE id = ?)
+            ON CONFLICT (book_id, user_id) DO UPDATE
+            SET chapter_index = EXCLUDED.chapter_index,
+                offset_in_chapter = EXCLUDED.offset_in_chapter,
+                updated_at = EXCLUDED.updated_at
+            WHERE book_progress.updated_at <= EXCLUDED.updated_at
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Key, PendingProgress> pending = new ConcurrentHashMap<>();
+    // zdjęte z bufora, ale jeszcze nie w bazie - odczyt w trakcie flusha nie może zobaczyć starej wartości
+    private volatile Map<Key, PendingProgress> flushing = Map.of();
+
+    public void put(Long userId, Long bookId, int chapterIndex, int offsetInChapter) {
+        pending.put(new Key(userId, bookId), new PendingProgress(chapterIndex, offsetInChapter, LocalDateTime.now()));
+    }
+
+    public Optional<PendingProgress> get(Long userId, Long bookId) {
+        Key key = new Key(userId, bookId);
+        PendingProgress progress = pending.get(key);
+        if (progress == null) {
+            progress = flushing.get(key);
+        }
+        return Optional.ofNullable(progress);
+    }
+
+    public boolean contains(Long userId, Long bookId) {
+        return get(userId, bookId).isPresent();
+    }
+
+    @Scheduled(fixedDelayString = "${progress.flush-interval-ms}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        if (!pending.isEmpty()) {
+            log.warn("Nie zapisano postępu czytania dla {} książek przy zamykaniu aplikacji", pending.size());
+        }
+    }
+
+    // synchronized - flush z harmonogramu i przy zamykaniu nie mogą się przeplatać
+    public synchronized int flush() {
+        Map<Key, PendingProgress> batch = new HashMap<>(pending);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        // najpierw publikujemy migawkę, dopiero potem zdejmujemy z bufora - klucz jest zawsze w jednej z map;
+        // nowszy postęp, który przyszedł w międzyczasie, zostaje w buforze na następny flush
+        flushing = batch;
+        batch.forEach(pending::remove);
+        try {
+            List<Object[]> rows = new ArrayList<>(batch.size());
+            batch.forEach((key, progress) -> rows.add(new Object[]{
+                    key.userId(), key.bookId(), progress.chapterIndex(), progress.offsetInChapter(), progress.updatedAt(),
+                    key.bookId(), key.userId()}));
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+            log.debug("Zapisano postęp czytania dla {} książek", batch.size());
+            return batch.size();
+        } catch (RuntimeException e) {
+            // baza niedostępna - wracamy do bufora, chyba że czytelnik zdążył wysłać nowszy postęp
+            batch.forEach(pending::putIfAbsent);
+            log.warn("Nie udało się zapisać postępu czytania ({} książek), ponowię: {}", batch.size(), e.getMessage());
+            return 0;
+        } finally {
+            flushing = Map.of();
+        }
+    }
+
+    public record PendingProgress(int chapterIndex, int offsetInChapter, LocalDateTime updatedAt) {
+    }
+
+    private record Key(Long userId, Long bookId) {
+    }
+}
@@ -0,0 +1,22 @@
+package org.example.novelreader.service;
+
+import org.example.novelreader.dto.CreateUploadSessionRequest;
+import org.example.novelreader.dto.StagedBookResponse;
+import org.example.novelreader.dto.UploadSessionResponse;
+
+import java.io.InputStream;
+import java.util.UUID;
+
+/*
+ * Wznawialny upload dużych plików: sesja -> kawałki pod kolejne offsety (każdy z własnym SHA-256)
+ * -> complete. Po zerwanym połączeniu klient pyta o offset i wysyła tylko to, czego brakuje.
+ * Complete odkłada plik jak /parse-metadata?stage=true, dalej zwykłe /books/staged/{token}/commit.
+ */
+public interface UploadSessionService {
+    UploadSessionResponse create(Long userId, CreateUploadSessionRequest request);
+    UploadSessionResponse getSession(Long userId, UUID uploadId);
+    UploadSessionResponse appendChunk(Long userId, UUID uploadId, long offset, InputStream body, long length, String sha256);
+    StagedBookResponse complete(Long userId, UUID uploadId);
+    void abort(Long userId, UUID uploadId);
+    void purgeExpired();
+}
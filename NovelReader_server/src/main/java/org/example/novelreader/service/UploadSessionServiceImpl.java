@@ -0,0 +1,221 @@
+package org.example.novelreader.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.novelreader.dto.CreateUploadSessionRequest;
+import org.example.novelreader.dto.StagedBookResponse;
+import org.example.novelreader.dto.UploadSessionResponse;
+import org.example.novelreader.entity.UploadSession;
+import org.example.novelreader.exception.InvalidUploadException;
+import org.example.novelreader.exception.ResourceNotFoundException;
+import org.example.novelreader.exception.UploadOffsetMismatchException;
+import org.example.novelreader.repository.UploadSessionRepository;
+import org.example.novelreader.storage.BookFileStorage;
+import org.example.novelreader.storage.StoredFile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UploadSessionServiceImpl implements UploadSessionService {
+
+    private static final int PURGE_BATCH = 100;
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final BookFileStorage bookFileStorage;
+    private final BookStagingService bookStagingService;
+
+    // klient ponawiający kawałek po timeoucie nie może pisać w ten sam plik co wciąż trwający zapis
+    private final Set<UUID> writing = ConcurrentHashMap.newKeySet();
+
+    @Value("${book.upload.chunk-size}")
+    private int chunkSize;
+
+    @Value("${book.upload.max-size}")
+    private long maxSize;
+
+    @Value("${book.upload.session-ttl}")
+    private Duration ttl;
+
+    @Override
+    public UploadSessionResponse create(Long userId, CreateUploadSessionRequest request) {
+        Long totalSize = request.getTotalSize();
+        if (totalSize == null || totalSize <= 0 || totalSize > maxSize) {
+            throw new InvalidUploadException("Rozmiar pliku musi być z zakresu 1-" + maxSize + " bajtów");
+        }
+
+        Path part;
+        try {
+            part = bookFileStorage.createPartFile();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create upload file", e);
+        }
+
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            UploadSession session = uploadSessionRepository.save(UploadSession.builder()
+                    .id(UUID.randomUUID())
+                    .userId(userId)
+                    .filePath(part.toString())
+                    .fileName(request.getFileName())
+                    .totalSize(totalSize)
+                    .chunkSize(chunkSize)
+                    .receivedBytes(0L)
+                    .createdAt(now)
+                    .expiresAt(now.plus(ttl))
+                    .build());
+            return mapToResponse(session);
+        } catch (RuntimeException e) {
+            deleteQuietly(part.toString());
+            throw e;
+        }
+    }
+
+    @Override
+    public UploadSessionResponse getSession(Long userId, UUID uploadId) {
+        return mapToResponse(getActiveSession(userId, uploadId));
+    }
+
+    @Override
+    public UploadSessionResponse appendChunk(Long userId, UUID uploadId, long offset, InputStream body, long length, String sha256) {
+        UploadSession session = getActiveSession(userId, uploadId);
+        if (offset != session.getReceivedBytes()) {
+            throw new UploadOffsetMismatchException(session.getReceivedBytes(), offset);
+        }
+        validateChunk(session, offset, length, sha256);
+
+        if (!writing.add(uploadId)) {
+            throw new UploadOffsetMismatchException("Poprzedni kawałek tej sesji jest jeszcze zapisywany", offset);
+        }
+        try {
+            Path file = Path.of(session.getFilePath());
+            String actual = bookFileStorage.writeChunk(file, offset, body, length);
+            if (!actual.equalsIgnoreCase(sha256.trim())) {
+                bookFileStorage.truncate(file, offset);
+                throw new InvalidUploadException("Suma kontrolna kawałka od offsetu " + offset + " się nie zgadza");
+            }
+
+            long next = offset + length;
+            LocalDateTime expiresAt = LocalDateTime.now().plus(ttl);
+            if (uploadSessionRepository.advance(uploadId, offset, next, expiresAt) == 0) {
+                // ktoś przesunął offset w międzyczasie (inna instancja) - klient dopyta o aktualny stan
+                throw new UploadOffsetMismatchException("Offset sesji zmienił się w trakcie zapisu kawałka", offset);
+            }
+            session.setReceivedBytes(next);
+            session.setExpiresAt(expiresAt);
+            return mapToResponse(session);
+        } catch (EOFException e) {
+            throw new InvalidUploadException("Kawałek od offsetu " + offset + " został przerwany, wyślij go ponownie");
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write upload chunk", e);
+        } finally {
+            writing.remove(uploadId);
+        }
+    }
+
+    @Override
+    public StagedBookResponse complete(Long userId, UUID uploadId) {
+        UploadSession session = getActiveSession(userId, uploadId);
+        if (!session.isComplete()) {
+            throw new UploadOffsetMismatchException("Upload nie jest kompletny", session.getReceivedBytes());
+        }
+        if (uploadSessionRepository.deleteCompleted(uploadId, userId) == 0) {
+            throw new ResourceNotFoundException("Upload " + uploadId + " został już zakończony");
+        }
+
+        // od tej chwili plik należy do stagingu - przy błędzie parsowania sam go usunie
+        StoredFile file;
+        try {
+            file = bookFileStorage.describe(Path.of(session.getFilePath()));
+        } catch (IOException e) {
+            deleteQuietly(session.getFilePath());
+            throw new RuntimeException("Failed to read uploaded file", e);
+        }
+        return bookStagingService.stage(userId, file);
+    }
+
+    @Override
+    public void abort(Long userId, UUID uploadId) {
+        UploadSession session = uploadSessionRepository.findByIdAndUserId(uploadId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Upload " + uploadId + " nie istnieje"));
+        uploadSessionRepository.delete(session);
+        deleteQuietly(session.getFilePath());
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${book.upload.cleanup-interval-ms}")
+    @Transactional
+    public void purgeExpired() {
+        List<UploadSession> expired = uploadSessionRepository.lockExpired(LocalDateTime.now(), PURGE_BATCH);
+        for (UploadSession session : expired) {
+            uploadSessionRepository.delete(session);
+            deleteQuietly(session.getFilePath());
+        }
+        if (!expired.isEmpty()) {
+            log.info("Usunięto {} porzuconych uploadów", expired.size());
+        }
+    }
+
+    // stałe kawałki - tylko ostatni może być krótszy, więc offset zawsze wypada na granicy kawałka
+    private void validateChunk(UploadSession session, long offset, long length, String sha256) {
+        long remaining = session.getTotalSize() - offset;
+        if (remaining == 0) {
+            throw new InvalidUploadException("Upload jest już kompletny");
+        }
+        if (length <= 0) {
+            throw new InvalidUploadException("Kawałek musi mieć nagłówek Content-Length");
+        }
+        if (length != Math.min(session.getChunkSize(), remaining)) {
+            throw new InvalidUploadException("Kawałek od offsetu " + offset + " musi mieć "
+                    + Math.min(session.getChunkSize(), remaining) + " bajtów");
+        }
+        if (!StringUtils.hasText(sha256)) {
+            throw new InvalidUploadException("Brak sumy kontrolnej kawałka (X-Chunk-Sha256)");
+        }
+    }
+
+    private UploadSession getActiveSession(Long userId, UUID uploadId) {
+        UploadSession session = uploadSessionRepository.findByIdAndUserId(uploadId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Upload " + uploadId + " nie istnieje"));
+        if (session.getExpiresAt().isBefore(LocalDateTime.now())) {
+            // plik i wiersz sprząta purgeExpired
+            throw new ResourceNotFoundException("Upload " + uploadId + " wygasł, zacznij go od nowa");
+        }
+        return session;
+    }
+
+    private UploadSessionResponse mapToResponse(UploadSession session) {
+        return UploadSessionResponse.builder()
+                .uploadId(session.getId())
+                .fileName(session.getFileName())
+                .totalSize(session.getTotalSize())
+                .chunkSize(session.getChunkSize())
+                .offset(session.getReceivedBytes())
+                .complete(session.isComplete())
+                .expiresAt(session.getExpiresAt())
+                .build();
+    }
+
+    private void deleteQuietly(String filePath) {
+        try {
+            bookFileStorage.delete(Path.of(filePath));
+        } catch (IOException e) {
+            log.warn("Nie udało się usunąć pliku {}: {}", filePath, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.novelreader.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.novelreader.entity.BookBlob;
+import org.example.novelreader.repository.BookBlobRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/*
+ * Licznik referencji do plików EPUB w book_blobs. Plik i jego sparsowana treść (".chapters")
+ * są wspólne dla wszystkich książek z tym samym SHA-256 - znikają dopiero z ostatnią z nich.
+ *
+ * Pliki ruszamy dopiero po zakończeniu transakcji wołającego: wycofany upload nie może zostawić
+ * bloba bez wiersza, a wycofane usunięcie - wiersza bez pliku. Sprzątanie bierze blokadę na skrócie
+ * (tę samą co acquire) i usuwa plik tylko, jeśli w book_blobs nadal nie ma dla niego wiersza.
+ */
+@Component
+@Slf4j
+public class BookBlobStore {
+
+    private final BookBlobRepository blobRepository;
+    private final BookFileStorage fileStorage;
+    private final BookContentStore contentStore;
+    private final TransactionTemplate sweepTransaction;
+
+    public BookBlobStore(BookBlobRepository blobRepository, BookFileStorage fileStorage, BookContentStore contentStore,
+                         PlatformTransactionManager transactionManager) {
+        this.blobRepository = blobRepository;
+        this.fileStorage = fileStorage;
+        this.contentStore = contentStore;
+        // po zakończeniu transakcji wołającego potrzebujemy własnej
+        this.sweepTransaction = new TransactionTemplate(transactionManager);
+        this.sweepTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // plik źródłowy zostaje - wołający usuwa go sam (upload od razu, staging dopiero po commicie)
+    @Transactional
+    public Path acquire(StoredFile incoming) throws IOException {
+        String sha256 = incoming.getSha256();
+        Path blob = fileStorage.blobPath(sha256);
+        blobRepository.lockDigest(sha256);
+        blobRepository.acquire(sha256, blob.toString(), incoming.getSize());
+        fileStorage.share(incoming.getPath(), blob);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    sweep(sha256, blob.toString());
+                }
+            }
+        });
+        return blob;
+    }
+
+    @Transactional
+    public void release(String sha256) {
+        Optional<BookBlob> locked = blobRepository.lockBySha256(sha256);
+        if (locked.isEmpty()) {
+            log.warn("Brak bloba {} przy zwalnianiu referencji", sha256);
+            return;
+        }
+
+        BookBlob blob = locked.get();
+        if (blob.getRefCount() > 1) {
+            blob.setRefCount(blob.getRefCount() - 1);
+            return;
+        }
+
+        blobRepository.delete(blob);
+        String filePath = blob.getFilePath();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                sweep(sha256, filePath);
+            }
+        });
+    }
+
+    private void sweep(String sha256, String filePath) {
+        try {
+            sweepTransaction.executeWithoutResult(status -> {
+                blobRepository.lockDigest(sha256);
+                if (blobRepository.existsById(sha256)) {
+                    return; // ktoś w międzyczasie dodał ten sam plik - blob zostaje
+                }
+                try {
+                    contentStore.delete(filePath);
+                    fileStorage.delete(Path.of(filePath));
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                log.info("Usunięto blob {} (brak referencji)", sha256);
+            });
+        } catch (RuntimeException e) {
+            // wynik transakcji wołającego już zapadł - zostaje najwyżej osierocony plik
+            log.warn("Nie udało się usunąć bloba {}: {}", sha256, e.getMessage());
+        }
+    }
+}
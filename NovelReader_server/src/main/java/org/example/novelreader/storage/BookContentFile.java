@@ -0,0 +1,277 @@
+package org.example.novelreader.storage;
+
+import org.example.novelreader.dto.ChapterDto;
+import org.example.novelreader.dto.EpubDto;
+import org.example.novelreader.dto.MetadataDto;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/*
+ * Binarny format sparsowanej książki (zamiast jednego wielkiego JSON-a obok EPUB-a).
+ *
+ *   int    magic "NRBK"
+ *   short  wersja formatu
+ *   int    długość nagłówka
+ *   -- nagłówek --
+ *   6 x    string metadanych (title, author, language, identifier, description, coverHref)
+ *   int    liczba rozdziałów
+ *   n x    [long offset bloku, int długość bloku, int długość tekstu, string tytuł]
+ *   -- bloki rozdziałów --
+ *   n x    [string html, string text]
+ *
+ * string = int długość w bajtach (-1 dla null) + UTF-8. Nagłówek jest mały, więc czytamy go
+ * w całości, a pojedynczy rozdział doczytujemy z FileChannel po offsecie - reszta pliku nietknięta.
+ */
+public class BookContentFile implements Closeable {
+
+    public static final int MAGIC = 0x4E52424B; // "NRBK"
+    public static final short FORMAT_VERSION = 1;
+
+    private static final int PREAMBLE_SIZE = Integer.BYTES + Short.BYTES + Integer.BYTES;
+    private static final int CHAPTER_ENTRY_MIN_SIZE = Long.BYTES + 3 * Integer.BYTES;
+    private static final int NULL_LENGTH = -1;
+
+    private final FileChannel channel;
+    private final MetadataDto metadata;
+    private final List<ChapterEntry> chapters;
+
+    private BookContentFile(FileChannel channel, MetadataDto metadata, List<ChapterEntry> chapters) {
+        this.channel = channel;
+        this.metadata = metadata;
+        this.chapters = chapters;
+    }
+
+    public static BookContentFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer preamble = readFully(channel, 0, PREAMBLE_SIZE);
+            if (preamble.getInt() != MAGIC) {
+                throw new BookContentFormatException("Not a book content file: " + path);
+            }
+            short version = preamble.getShort();
+            if (version != FORMAT_VERSION) {
+                throw new BookContentFormatException("Unsupported book content version " + version + ": " + path);
+            }
+            int headerLength = preamble.getInt();
+            if (headerLength < 0 || PREAMBLE_SIZE + (long) headerLength > channel.size()) {
+                throw new BookContentFormatException("Corrupted book content header: " + path);
+            }
+
+            ByteBuffer header = readFully(channel, PREAMBLE_SIZE, headerLength);
+            MetadataDto metadata = MetadataDto.builder()
+                    .title(getString(header))
+                    .author(getString(header))
+                    .language(getString(header))
+                    .identifier(getString(header))
+                    .description(getString(header))
+                    .coverHref(getString(header))
+                    .build();
+
+            int count = header.getInt();
+            if (count < 0 || count > header.remaining() / CHAPTER_ENTRY_MIN_SIZE) {
+                throw new BookContentFormatException("Corrupted chapter table: " + path);
+            }
+            List<ChapterEntry> chapters = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long offset = header.getLong();
+                int blockLength = header.getInt();
+                int textLength = header.getInt();
+                String title = getString(header);
+                chapters.add(new ChapterEntry(offset, blockLength, textLength, title));
+            }
+            return new BookContentFile(channel, metadata, chapters);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            if (e instanceof RuntimeException) {
+                throw new BookContentFormatException("Corrupted book content file: " + path, e);
+            }
+            throw e;
+        }
+    }
+
+    public static void write(Path path, EpubDto book) throws IOException {
+        MetadataDto meta = book.getMetadata() != null ? book.getMetadata() : MetadataDto.builder().build();
+        List<ChapterDto> chapters = book.getChapters() != null ? book.getChapters() : List.of();
+
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            // rozmiar nagłówka zależy tylko od tytułów, więc najpierw zapisujemy bloki
+            // za zarezerwowanym miejscem, a nagłówek z offsetami na końcu wraca na początek pliku
+            byte[][] titles = new byte[chapters.size()][];
+            int headerLength = 0;
+            for (String value : metadataValues(meta)) {
+                headerLength += stringSize(encode(value));
+            }
+            headerLength += Integer.BYTES;
+            for (int i = 0; i < chapters.size(); i++) {
+                titles[i] = encode(chapters.get(i).getTitle());
+                headerLength += Long.BYTES + Integer.BYTES + Integer.BYTES + stringSize(titles[i]);
+            }
+
+            long position = PREAMBLE_SIZE + (long) headerLength;
+            long[] offsets = new long[chapters.size()];
+            int[] blockLengths = new int[chapters.size()];
+            for (int i = 0; i < chapters.size(); i++) {
+                ChapterDto chapter = chapters.get(i);
+                byte[] html = encode(chapter.getHtml());
+                byte[] text = encode(chapter.getText());
+
+                ByteBuffer block = ByteBuffer.allocate(stringSize(html) + stringSize(text));
+                putString(block, html);
+                putString(block, text);
+                block.flip();
+
+                offsets[i] = position;
+                blockLengths[i] = block.remaining();
+                position += writeFully(channel, block, position);
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(PREAMBLE_SIZE + headerLength);
+            header.putInt(MAGIC);
+            header.putShort(FORMAT_VERSION);
+            header.putInt(headerLength);
+            for (String value : metadataValues(meta)) {
+                putString(header, encode(value));
+            }
+            header.putInt(chapters.size());
+            for (int i = 0; i < chapters.size(); i++) {
+                String text = chapters.get(i).getText();
+                header.putLong(offsets[i]);
+                header.putInt(blockLengths[i]);
+                header.putInt(text != null ? text.length() : 0);
+                putString(header, titles[i]);
+            }
+            header.flip();
+            writeFully(channel, header, 0);
+            channel.force(false);
+        }
+    }
+
+    public MetadataDto getMetadata() {
+        return metadata;
+    }
+
+    public int getChapterCount() {
+        return chapters.size();
+    }
+
+    public String getChapterTitle(int index) {
+        return entry(index).title;
+    }
+
+    public int getChapterTextLength(int index) {
+        return entry(index).textLength;
+    }
+
+    public ChapterDto readChapter(int index) throws IOException {
+        ChapterEntry entry = entry(index);
+        try {
+            ByteBuffer block = readFully(channel, entry.offset, entry.blockLength);
+            return ChapterDto.builder()
+                    .index(index)
+                    .title(entry.title)
+                    .html(getString(block))
+                    .text(getString(block))
+                    .build();
+        } catch (RuntimeException e) {
+            throw new BookContentFormatException("Corrupted chapter block " + index, e);
+        }
+    }
+
+    public EpubDto readAll() throws IOException {
+        List<ChapterDto> result = new ArrayList<>(chapters.size());
+        for (int i = 0; i < chapters.size(); i++) {
+            result.add(readChapter(i));
+        }
+        return EpubDto.builder()
+                .metadata(metadata)
+                .chapters(result)
+                .build();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private ChapterEntry entry(int index) {
+        return chapters.get(Objects.checkIndex(index, chapters.size()));
+    }
+
+    private static String[] metadataValues(MetadataDto meta) {
+        return new String[]{
+                meta.getTitle(), meta.getAuthor(), meta.getLanguage(),
+                meta.getIdentifier(), meta.getDescription(), meta.getCoverHref()
+        };
+    }
+
+    private static byte[] encode(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int stringSize(byte[] bytes) {
+        return Integer.BYTES + (bytes != null ? bytes.length : 0);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(NULL_LENGTH);
+        } else {
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new BookContentFormatException("Unexpected end of book content file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+
+    private static final class ChapterEntry {
+        private final long offset;
+        private final int blockLength;
+        private final int textLength;
+        private final String title;
+
+        private ChapterEntry(long offset, int blockLength, int textLength, String title) {
+            this.offset = offset;
+            this.blockLength = blockLength;
+            this.textLength = textLength;
+            this.title = title;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.novelreader.storage;
+
+import java.io.IOException;
+
+// plik z treścią jest w starym formacie albo uszkodzony - trzeba go odbudować z EPUB-a
+public class BookContentFormatException extends IOException {
+
+    public BookContentFormatException(String message) {
+        super(message);
+    }
+
+    public BookContentFormatException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.novelreader.storage;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/*
+ * Pisze treść książki jako JSON w kształcie EpubDto prosto do strumienia odpowiedzi.
+ * Kopertę (metadata, chapters) składamy ręcznie, a metadane i rozdziały serializuje ten sam
+ * ObjectMapper co resztę API - wynik jest taki sam jak dla całego EpubDto, ale w pamięci
+ * siedzi naraz tylko jeden rozdział.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookContentJsonWriter {
+
+    private final ObjectMapper objectMapper;
+
+    public void write(BookContentFile content, OutputStream out) throws IOException {
+        try (JsonGenerator json = createGenerator(out)) {
+            json.writeStartObject();
+            json.writeFieldName("metadata");
+            json.writeObject(content.getMetadata());
+            json.writeFieldName("chapters");
+            json.writeStartArray();
+            for (int i = 0; i < content.getChapterCount(); i++) {
+                json.writeObject(content.readChapter(i));
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+
+    private JsonGenerator createGenerator(OutputStream out) throws IOException {
+        // strumień odpowiedzi zamyka kontener, generator tylko flushuje
+        return objectMapper.createGenerator(out, JsonEncoding.UTF8)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.novelreader.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.novelreader.dto.EpubDto;
+import org.springframework.stereotype.Component;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.UUID;
+
+/*
+ * Trzyma sparsowaną treść książki obok pliku EPUB w formacie BookContentFile.
+ * Stare sidecary "<plik>.json" migrujemy leniwie - przy pierwszym odczycie
+ * przepisujemy je do nowego formatu i usuwamy.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookContentStore {
+
+    public static final String CONTENT_SUFFIX = ".chapters";
+    private static final String LEGACY_JSON_SUFFIX = ".json";
+
+    private final ObjectMapper objectMapper;
+
+    // pusty Optional = brak treści (trzeba sparsować EPUB od nowa)
+    public Optional<BookContentFile> open(String bookFilePath) throws IOException {
+        Path contentPath = contentPath(bookFilePath);
+
+        if (Files.exists(contentPath)) {
+            try {
+                return Optional.of(BookContentFile.open(contentPath));
+            } catch (BookContentFormatException e) {
+                log.warn("Odrzucam nieaktualny plik treści {}: {}", contentPath, e.getMessage());
+                Files.deleteIfExists(contentPath);
+            }
+        }
+
+        Path legacyJson = Paths.get(bookFilePath + LEGACY_JSON_SUFFIX);
+        if (Files.exists(legacyJson)) {
+            EpubDto legacy;
+            try {
+                legacy = objectMapper.readValue(legacyJson.toFile(), EpubDto.class);
+            } catch (FileNotFoundException | NoSuchFileException e) {
+                // równoległy odczyt zdążył zmigrować i usunąć JSON-a - bierzemy jego wynik
+                if (Files.exists(contentPath)) {
+                    return Optional.of(BookContentFile.open(contentPath));
+                }
+                return Optional.empty();
+            }
+            write(bookFilePath, legacy);
+            Files.deleteIfExists(legacyJson);
+            log.info("Zmigrowano {} do formatu binarnego", legacyJson);
+            return Optional.of(BookContentFile.open(contentPath));
+        }
+
+        return Optional.empty();
+    }
+
+    public Optional<EpubDto> readBook(String bookFilePath) throws IOException {
+        Optional<BookContentFile> content = open(bookFilePath);
+        if (content.isEmpty()) {
+            return Optional.empty();
+        }
+        try (BookContentFile file = content.get()) {
+            return Optional.of(file.readAll());
+        }
+    }
+
+    public boolean exists(String bookFilePath) {
+        return Files.exists(contentPath(bookFilePath));
+    }
+
+    // zapis do pliku tymczasowego i podmiana - czytelnik widzi stary plik albo cały nowy, nigdy połowę
+    public void write(String bookFilePath, EpubDto book) throws IOException {
+        Path contentPath = contentPath(bookFilePath);
+        Path temp = contentPath.resolveSibling(contentPath.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            BookContentFile.write(temp, book);
+            BookFileStorage.moveAtomically(temp, contentPath);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public void delete(String bookFilePath) throws IOException {
+        Files.deleteIfExists(contentPath(bookFilePath));
+        Files.deleteIfExists(Paths.get(bookFilePath + LEGACY_JSON_SUFFIX));
+    }
+
+    private Path contentPath(String bookFilePath) {
+        return Paths.get(bookFilePath + CONTENT_SUFFIX);
+    }
+}
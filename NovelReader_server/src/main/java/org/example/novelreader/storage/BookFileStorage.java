@@ -0,0 +1,191 @@
+package org.example.novelreader.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/*
+ * Zapis przesłanych EPUB-ów na dysk. Plik leci strumieniem z multiparta prosto do pliku tymczasowego
+ * w katalogu blobów (SHA-256 i rozmiar liczymy po drodze), a potem jako hard link trafia pod swój skrót:
+ *
+ *   <storage>/blobs/ab/ab12...ef.epub
+ *
+ * Wcześniej file.getBytes() trzymało cały plik na heapie - przy kilku 100 MB uploadach naraz to był full GC.
+ */
+@Component
+public class BookFileStorage {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String BLOBS_DIR = "blobs";
+
+    private final Path blobsRoot;
+
+    public BookFileStorage(@Value("${book.storage.path}") String storagePath) {
+        this.blobsRoot = Paths.get(storagePath).resolve(BLOBS_DIR);
+    }
+
+    // plik tymczasowy ze skrótem - gdzie ostatecznie wyląduje decyduje BookBlobStore
+    public StoredFile receive(MultipartFile file) throws IOException {
+        Files.createDirectories(blobsRoot);
+        try (InputStream in = file.getInputStream()) {
+            return receive(in);
+        }
+    }
+
+    // plik z dysku serwera (import katalogu) - kopia, oryginał zostaje na miejscu
+    public StoredFile receive(Path source) throws IOException {
+        Files.createDirectories(blobsRoot);
+        try (InputStream in = Files.newInputStream(source)) {
+            return receive(in);
+        }
+    }
+
+    StoredFile receive(InputStream source) throws IOException {
+        // temp w tym samym katalogu co bloby, żeby blob mógł być hard linkiem (ten sam system plików)
+        Path temp = Files.createTempFile(blobsRoot, ".upload-", ".tmp");
+        try {
+            MessageDigest sha256 = newSha256();
+            long size = 0;
+            try (DigestInputStream in = new DigestInputStream(source, sha256);
+                 OutputStream out = Files.newOutputStream(temp)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                    size += read;
+                }
+            }
+            return new StoredFile(temp, HexFormat.of().formatHex(sha256.digest()), size);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    // pusty plik pod upload w kawałkach - też w katalogu blobów, więc potem wystarczy hard link
+    public Path createPartFile() throws IOException {
+        Files.createDirectories(blobsRoot);
+        return Files.createTempFile(blobsRoot, ".part-", ".tmp");
+    }
+
+    /*
+     * Zapisuje dokładnie length bajtów od offsetu i zwraca ich SHA-256 (hex). Bajty za offsetem
+     * (resztki przerwanego kawałka) są najpierw obcinane, a przy błędzie plik wraca do offsetu.
+     */
+    public String writeChunk(Path file, long offset, InputStream source, long length) throws IOException {
+        MessageDigest sha256 = newSha256();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(offset);
+            try {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                long written = 0;
+                while (written < length) {
+                    int read = source.read(buffer, 0, (int) Math.min(buffer.length, length - written));
+                    if (read == -1) {
+                        throw new EOFException("Chunk ended after " + written + " of " + length + " bytes");
+                    }
+                    sha256.update(buffer, 0, read);
+                    ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                    while (chunk.hasRemaining()) {
+                        written += channel.write(chunk, offset + written);
+                    }
+                }
+                // offset w bazie przesuwamy dopiero po tym - po restarcie serwera dane muszą już być na dysku
+                channel.force(false);
+            } catch (IOException | RuntimeException e) {
+                channel.truncate(offset);
+                throw e;
+            }
+        }
+        return HexFormat.of().formatHex(sha256.digest());
+    }
+
+    public void truncate(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    // skrót złożonego pliku - jedno przejście po dysku, bez trzymania pliku w pamięci
+    public StoredFile describe(Path file) throws IOException {
+        MessageDigest sha256 = newSha256();
+        long size = 0;
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                sha256.update(buffer, 0, read);
+                size += read;
+            }
+        }
+        return new StoredFile(file, HexFormat.of().formatHex(sha256.digest()), size);
+    }
+
+    public Path blobPath(String sha256) {
+        return blobsRoot.resolve(sha256.substring(0, 2)).resolve(sha256 + ".epub");
+    }
+
+    /*
+     * Drugie dowiązanie (hard link) do pliku pod jego skrótem - źródło zostaje na miejscu, więc przy wycofanej
+     * transakcji plik ze staging nadal jest do użycia. Gdy link się nie da (inny system plików) - kopia.
+     * Ten sam skrót = ta sama zawartość, więc istniejący blob zostawiamy w spokoju.
+     */
+    public void share(Path source, Path blob) throws IOException {
+        if (Files.exists(blob)) {
+            return;
+        }
+        Files.createDirectories(blob.getParent());
+        try {
+            Files.createLink(blob, source);
+        } catch (FileAlreadyExistsException e) {
+            // ktoś właśnie dodał ten sam plik
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            Path temp = Files.createTempFile(blob.getParent(), ".copy-", ".tmp");
+            try {
+                Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING);
+                moveAtomically(temp, blob);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    public void delete(Path path) throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
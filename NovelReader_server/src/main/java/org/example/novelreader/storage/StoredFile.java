@@ -0,0 +1,15 @@
+package org.example.novelreader.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.file.Path;
+
+// wynik zapisu uploadu - skrót i rozmiar liczone w tym samym przebiegu co zapis na dysk
+@Getter
+@AllArgsConstructor
+public class StoredFile {
+    private final Path path;
+    private final String sha256; // hex, małe litery
+    private final long size;
+}
@@ -0,0 +1,15 @@
+-- plik przesłany przy parsowaniu metadanych, czeka na zatwierdzenie przez użytkownika
+CREATE TABLE staged_uploads (
+    token UUID PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    file_path VARCHAR(1024) NOT NULL,
+    sha256 CHAR(64) NOT NULL,
+    file_size BIGINT NOT NULL,
+    title VARCHAR(255),
+    author VARCHAR(255),
+    description TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_staged_uploads_expires_at ON staged_uploads(expires_at);
@@ -0,0 +1,2 @@
+-- licznik zmian biblioteki - z niego słaby ETag listy książek (GET /api/v1/books)
+ALTER TABLE users ADD COLUMN library_version BIGINT NOT NULL DEFAULT 0;
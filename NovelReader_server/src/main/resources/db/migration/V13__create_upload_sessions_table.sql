@@ -0,0 +1,14 @@
+-- upload w kawałkach - plik rośnie na dysku, received_bytes to offset od którego klient wznawia
+CREATE TABLE upload_sessions (
+    id UUID PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    file_path VARCHAR(1024) NOT NULL,
+    file_name VARCHAR(255),
+    total_size BIGINT NOT NULL,
+    chunk_size INT NOT NULL,
+    received_bytes BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_upload_sessions_expires_at ON upload_sessions(expires_at);
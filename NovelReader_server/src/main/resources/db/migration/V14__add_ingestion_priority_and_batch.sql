@@ -0,0 +1,8 @@
+-- import wsadowy ustępuje pojedynczym uploadom (0 = interaktywny, wyżej = później)
+ALTER TABLE ingestion_jobs ADD COLUMN priority SMALLINT NOT NULL DEFAULT 0;
+-- zadania z jednego importu - po tym klient odpytuje wyniki całej paczki
+ALTER TABLE ingestion_jobs ADD COLUMN batch_id UUID;
+
+DROP INDEX idx_ingestion_jobs_queued;
+CREATE INDEX idx_ingestion_jobs_queued ON ingestion_jobs(priority, next_attempt_at) WHERE status = 'QUEUED';
+CREATE INDEX idx_ingestion_jobs_batch ON ingestion_jobs(batch_id) WHERE batch_id IS NOT NULL;
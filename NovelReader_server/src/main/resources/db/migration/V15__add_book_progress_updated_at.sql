@@ -0,0 +1,2 @@
+-- kiedy klient wysłał postęp - przy zapisie paczką starszy wpis nie nadpisuje nowszego (inna instancja)
+ALTER TABLE book_progress ADD COLUMN updated_at TIMESTAMP NOT NULL DEFAULT now();
@@ -0,0 +1,3 @@
+-- książki użytkownika (lista, sprawdzanie właściciela WHERE id = ? AND user_id = ?) idą po prefiksie user_id;
+-- od razu z kluczem domyślnego sortowania biblioteki, więc keyset po dacie dodania nie potrzebuje drugiego indeksu
+CREATE INDEX idx_books_user_uploaded ON books(user_id, uploaded_at, id);
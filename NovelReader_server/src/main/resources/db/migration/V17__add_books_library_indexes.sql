@@ -0,0 +1,7 @@
+-- keyset po bibliotece: (user_id, klucz sortowania, id) - każdy sort i kierunek to jeden przedział indeksu
+-- klucze muszą się zgadzać z BookSort (COALESCE dla autora); data dodania jest już w idx_books_user_uploaded (V16)
+CREATE INDEX idx_books_user_title ON books(user_id, title, id);
+CREATE INDEX idx_books_user_author ON books(user_id, (COALESCE(author, '')), id);
+
+-- "ostatnio czytane" nie ma indeksu: klucz pochodzi z LEFT JOIN-a do book_progress, więc baza i tak
+-- łączy i sortuje wszystkie książki użytkownika, a do złączenia wystarcza unikalny (book_id, user_id)
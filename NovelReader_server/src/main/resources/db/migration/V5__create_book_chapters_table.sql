@@ -0,0 +1,7 @@
+CREATE TABLE book_chapters (
+    book_id BIGINT NOT NULL REFERENCES books(id) ON DELETE CASCADE,
+    chapter_index INTEGER NOT NULL,
+    title TEXT,
+    text_length INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (book_id, chapter_index)
+);
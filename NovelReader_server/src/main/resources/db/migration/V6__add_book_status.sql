@@ -0,0 +1,2 @@
+-- książki sprzed kolejki przetwarzania mają już treść, więc domyślnie są gotowe
+ALTER TABLE books ADD COLUMN status VARCHAR(20) NOT NULL DEFAULT 'READY';
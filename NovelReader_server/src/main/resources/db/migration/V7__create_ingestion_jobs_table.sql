@@ -0,0 +1,26 @@
+CREATE TABLE ingestion_jobs (
+    id UUID PRIMARY KEY,
+    book_id BIGINT NOT NULL REFERENCES books(id) ON DELETE CASCADE,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    status VARCHAR(20) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    max_attempts INTEGER NOT NULL,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    locked_by VARCHAR(100),
+    locked_at TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    finished_at TIMESTAMP
+);
+
+-- workery pytają tylko o zadania czekające w kolejce albo o przeterminowane RUNNING
+CREATE INDEX idx_ingestion_jobs_queued ON ingestion_jobs(next_attempt_at) WHERE status = 'QUEUED';
+CREATE INDEX idx_ingestion_jobs_running ON ingestion_jobs(locked_at) WHERE status = 'RUNNING';
+
+-- zadania z poprzedniej (pamięciowej) kolejki przepadły przy restarcie - zgłaszamy je ponownie
+INSERT INTO ingestion_jobs (id, book_id, user_id, status, max_attempts)
+SELECT gen_random_uuid(), id, user_id, 'QUEUED', 5
+FROM books
+WHERE status IN ('PENDING', 'PROCESSING');
+
+UPDATE books SET status = 'PENDING' WHERE status = 'PROCESSING';
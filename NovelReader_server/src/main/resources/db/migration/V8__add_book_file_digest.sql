@@ -0,0 +1,2 @@
+ALTER TABLE books ADD COLUMN content_sha256 CHAR(64);
+ALTER TABLE books ADD COLUMN file_size BIGINT;
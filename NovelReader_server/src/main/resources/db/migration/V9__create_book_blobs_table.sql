@@ -0,0 +1,10 @@
+-- pliki EPUB adresowane skrótem SHA-256 - ta sama książka wrzucona przez kilku użytkowników leży na dysku raz
+CREATE TABLE book_blobs (
+    sha256 CHAR(64) PRIMARY KEY,
+    file_path VARCHAR(1024) NOT NULL,
+    file_size BIGINT NOT NULL,
+    ref_count INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_books_content_sha256 ON books(content_sha256);
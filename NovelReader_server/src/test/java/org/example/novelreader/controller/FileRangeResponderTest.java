@@ -0,0 +1,175 @@
+package org.example.novelreader.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("FileRangeResponder - Testy jednostkowe")
+class FileRangeResponderTest {
+
+    private static final String CONTENT = "0123456789abcdefghij";
+    private static final String ETAG = "\"abc123\"";
+
+    @TempDir
+    Path tempDir;
+
+    private final FileRangeResponder responder = new FileRangeResponder();
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = tempDir.resolve("book.epub");
+        Files.writeString(file, CONTENT, StandardCharsets.US_ASCII);
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        responder.send(file, ETAG, "Pan Tadeusz.epub", request, response);
+        return response;
+    }
+
+    @Test
+    @DisplayName("givenNoRange_whenSending_thenShouldReturnWholeFile")
+    void givenNoRange_whenSending_thenShouldReturnWholeFile() throws IOException {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/books/1/file");
+
+        // when
+        MockHttpServletResponse response = send(request);
+
+        // then
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+        assertEquals(CONTENT.length(), response.getContentLengthLong());
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertEquals(ETAG, response.getHeader("ETag"));
+    }
+
+    @Test
+    @DisplayName("givenSingleRange_whenSending_thenShouldReturnPartialContent")
+    void givenSingleRange_whenSending_thenShouldReturnPartialContent() throws IOException {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/books/1/file");
+        request.addHeader("Range", "bytes=5-9");
+
+        // when
+        MockHttpServletResponse response = send(request);
+
+        // then
+        assertEquals(206, response.getStatus());
+        assertEquals("56789", response.getContentAsString());
+        assertEquals(5, response.getContentLengthLong());
+        assertEquals("bytes 5-9/20", response.getHeader("Content-Range"));
+    }
+
+    @Test
+    @DisplayName("givenOpenEndedAndSuffixRanges_whenSending_thenShouldReturnFileTail")
+    void givenOpenEndedAndSuffixRanges_whenSending_thenShouldReturnFileTail() throws IOException {
+        // given
+        MockHttpServletRequest openEnded = new MockHttpServletRequest("GET", "/api/v1/books/1/file");
+        openEnded.addHeader("Range", "bytes=15-");
+        MockHttpServletRequest suffix = new MockHttpServletRequest("GET", "/api/v1/books/1/file");
+        suffix.addHeader("Range", "bytes=-5");
+
+        // when
+        MockHttpServletResponse openEndedResponse = send(openEnded);
+        MockHttpServletResponse suffixResponse = send(suffix);
+
+        // then
+        assertEquals("fghij", openEndedResponse.getContentAsString());
+        assertEquals("fghij", suffixResponse.getContentAsString());
+        assertEquals("bytes 15-19/20", suffixResponse.getHeader("Content-Range"));
+    }
+
+    @Test
+    @DisplayName("givenRangeBeyondFile_whenSending_thenShouldReturn416")
+    void givenRangeBeyondFile_whenSending_thenShouldReturn416() throws IOException {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/books/1/file");
+        request.addHeader("Range", "bytes=20-30");
+
+        // when
+        MockHttpServletResponse response = send(request);
+
+        // then
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */20", response.getHeader("Content-Range"));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    @DisplayName("givenStaleIfRange_whenSending_thenShouldReturnWholeFile")
+    void givenStaleIfRange_whenSending_thenShouldReturnWholeFile() throws IOException {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/books/1/file");
+        request.addHeader("Range", "bytes=5-9");
+        request.addHeader("If-Range", "\"inny-plik\"");
+
+        // when
+        MockHttpServletResponse response = send(request);
+
+        // then
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+    }
+
+    @Test
+    @DisplayName("givenMatchingIfRange_whenSending_thenShouldReturnPartialContent")
+    void givenMatchingIfRange_whenSending_thenShouldReturnPartialContent() throws IOException {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/books/1/file");
+        request.addHeader("Range", "bytes=0-1");
+        request.addHeader("If-Range", ETAG);
+
+        // when
+        MockHttpServletResponse response = send(request);
+
+        // then
+        assertEquals(206, response.getStatus());
+        assertEquals("01", response.getContentAsString());
+    }
+
+    @Test
+    @DisplayName("givenTomcatSendfile_whenSending_thenShouldDelegateRangeWithoutWritingBody")
+    void givenTomcatSendfile_whenSending_thenShouldDelegateRangeWithoutWritingBody() throws IOException {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/books/1/file");
+        request.addHeader("Range", "bytes=5-9");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+
+        // when
+        MockHttpServletResponse response = send(request);
+
+        // then
+        assertEquals(206, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(file.toAbsolutePath().toString(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(5L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(10L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+    }
+
+    @Test
+    @DisplayName("givenMatchingIfNoneMatch_whenSending_thenShouldReturn304")
+    void givenMatchingIfNoneMatch_whenSending_thenShouldReturn304() throws IOException {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/books/1/file");
+        request.addHeader("If-None-Match", ETAG);
+
+        // when
+        MockHttpServletResponse response = send(request);
+
+        // then
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+}
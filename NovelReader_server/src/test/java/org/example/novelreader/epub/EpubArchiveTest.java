@@ -0,0 +1,182 @@
+package org.example.novelreader.epub;
+
+import org.example.novelreader.dto.MetadataDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("EpubArchive - Testy jednostkowe")
+class EpubArchiveTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("givenOpfOutsideDefaultLocation_whenOpening_thenShouldFindItThroughContainerXml")
+    void givenOpfOutsideDefaultLocation_whenOpening_thenShouldFindItThroughContainerXml() throws IOException {
+        // given
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("mimetype", "application/epub+zip");
+        entries.put("META-INF/container.xml", TestEpubFiles.container("ksiazka/pakiet.opf"));
+        entries.put("ksiazka/pakiet.opf", """
+                <package xmlns="http://www.idpf.org/2007/opf" version="3.0">
+                  <metadata xmlns:dc="http://purl.org/dc/elements/1.1/">
+                    <dc:title>Lalka</dc:title>
+                    <dc:creator>Bolesław Prus</dc:creator>
+                  </metadata>
+                  <manifest><item id="r1" href="r1.xhtml" media-type="application/xhtml+xml"/></manifest>
+                  <spine><itemref idref="r1"/></spine>
+                </package>
+                """);
+        entries.put("ksiazka/r1.xhtml", "<html><body><p>Rozdział</p></body></html>");
+        Path epub = TestEpubFiles.write(tempDir, entries);
+
+        // when
+        try (EpubArchive archive = EpubArchive.open(epub)) {
+
+            // then
+            assertEquals("Lalka", archive.getMetadata().getTitle());
+            assertEquals("Bolesław Prus", archive.getMetadata().getAuthor());
+            assertEquals(1, archive.getSpineSize());
+            assertEquals("ksiazka/r1.xhtml", archive.getSpineHref(0));
+            assertEquals("<html><body><p>Rozdział</p></body></html>",
+                    new String(archive.readSpineItem(0), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    @DisplayName("givenRelativeAndEncodedHrefs_whenOpening_thenShouldResolveThemAgainstOpfDirectory")
+    void givenRelativeAndEncodedHrefs_whenOpening_thenShouldResolveThemAgainstOpfDirectory() throws IOException {
+        // given
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("META-INF/container.xml", TestEpubFiles.container("OEBPS/content.opf"));
+        entries.put("OEBPS/content.opf", """
+                <package xmlns="http://www.idpf.org/2007/opf" version="2.0">
+                  <metadata xmlns:dc="http://purl.org/dc/elements/1.1/"><dc:title>Ścieżki</dc:title></metadata>
+                  <manifest>
+                    <item id="a" href="Text/rozdzial%201.xhtml" media-type="application/xhtml+xml"/>
+                    <item id="b" href="./Text/../Text/b.xhtml#start" media-type="application/xhtml+xml"/>
+                    <item id="c" href="../extra/c.xhtml" media-type="application/xhtml+xml"/>
+                  </manifest>
+                  <spine><itemref idref="a"/><itemref idref="b"/><itemref idref="c"/></spine>
+                </package>
+                """);
+        Path epub = TestEpubFiles.write(tempDir, entries);
+
+        // when
+        try (EpubArchive archive = EpubArchive.open(epub)) {
+
+            // then
+            assertEquals("OEBPS/Text/rozdzial 1.xhtml", archive.getSpineHref(0));
+            assertEquals("OEBPS/Text/b.xhtml", archive.getSpineHref(1));
+            assertEquals("extra/c.xhtml", archive.getSpineHref(2));
+        }
+        assertEquals("a+b.xhtml", EpubArchive.resolve("", "a+b.xhtml"));
+        assertEquals("x.xhtml", EpubArchive.resolve("OEBPS/", "../../../x.xhtml"));
+    }
+
+    @Test
+    @DisplayName("givenOpfWithExternalEntity_whenOpening_thenShouldRejectWithoutReadingEntity")
+    void givenOpfWithExternalEntity_whenOpening_thenShouldRejectWithoutReadingEntity() throws IOException {
+        // given
+        Path secret = tempDir.resolve("sekret.txt");
+        Files.writeString(secret, "TAJNE");
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("META-INF/container.xml", TestEpubFiles.container("content.opf"));
+        entries.put("content.opf", "<?xml version=\"1.0\"?>\n"
+                + "<!DOCTYPE package [<!ENTITY xxe SYSTEM \"" + secret.toUri() + "\">]>\n"
+                + "<package xmlns=\"http://www.idpf.org/2007/opf\">\n"
+                + "  <metadata xmlns:dc=\"http://purl.org/dc/elements/1.1/\"><dc:title>&xxe;</dc:title></metadata>\n"
+                + "  <manifest/><spine/>\n"
+                + "</package>\n");
+        Path epub = TestEpubFiles.write(tempDir, entries);
+
+        // when
+        IOException error = assertThrows(IOException.class, () -> EpubArchive.open(epub).close());
+
+        // then
+        assertFalse(String.valueOf(error.getMessage()).contains("TAJNE"));
+        assertThrows(IOException.class, () -> EpubArchive.readMetadata(epub));
+    }
+
+    @Test
+    @DisplayName("givenEpub2CoverMeta_whenReadingMetadata_thenShouldReturnTitleAuthorAndCover")
+    void givenEpub2CoverMeta_whenReadingMetadata_thenShouldReturnTitleAuthorAndCover() throws IOException {
+        // given - spine jest uszkodzony, a rozdziału nie ma w archiwum: tryb metadanych nie może ich dotknąć
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("META-INF/container.xml", TestEpubFiles.container("OEBPS/content.opf"));
+        entries.put("OEBPS/content.opf", """
+                <package xmlns="http://www.idpf.org/2007/opf" version="2.0">
+                  <metadata xmlns:dc="http://purl.org/dc/elements/1.1/" xmlns:opf="http://www.idpf.org/2007/opf">
+                    <dc:title>Pan Tadeusz</dc:title>
+                    <dc:creator opf:role="aut">Adam Mickiewicz</dc:creator>
+                    <meta name="cover" content="okladka"/>
+                  </metadata>
+                  <manifest>
+                    <item id="okladka" href="images/cover.jpg" media-type="image/jpeg"/>
+                    <item id="r1" href="Text/r1.xhtml" media-type="application/xhtml+xml"/>
+                  </manifest>
+                  <spine><itemref idref="r1"></spine>
+                </package>
+                """);
+        Path epub = TestEpubFiles.write(tempDir, entries);
+
+        // when
+        MetadataDto metadata = EpubArchive.readMetadata(epub);
+
+        // then
+        assertEquals("Pan Tadeusz", metadata.getTitle());
+        assertEquals("Adam Mickiewicz", metadata.getAuthor());
+        assertEquals("OEBPS/images/cover.jpg", metadata.getCoverHref());
+        assertThrows(IOException.class, () -> EpubArchive.open(epub));
+    }
+
+    @Test
+    @DisplayName("givenEpub3CoverImageProperty_whenReadingMetadata_thenShouldReturnTitleAuthorAndCover")
+    void givenEpub3CoverImageProperty_whenReadingMetadata_thenShouldReturnTitleAuthorAndCover() throws IOException {
+        // given
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("META-INF/container.xml", TestEpubFiles.container("EPUB/package.opf"));
+        entries.put("EPUB/package.opf", """
+                <package xmlns="http://www.idpf.org/2007/opf" version="3.0">
+                  <metadata xmlns:dc="http://purl.org/dc/elements/1.1/">
+                    <dc:title>Solaris</dc:title>
+                    <dc:creator>Stanisław Lem</dc:creator>
+                  </metadata>
+                  <manifest>
+                    <item id="nav" href="nav.xhtml" properties="nav" media-type="application/xhtml+xml"/>
+                    <item id="img" href="img/okładka.png" properties="svg cover-image" media-type="image/png"/>
+                  </manifest>
+                  <spine><itemref idref="brak"/></spine>
+                </package>
+                """);
+        Path epub = TestEpubFiles.write(tempDir, entries);
+
+        // when
+        MetadataDto metadata = EpubArchive.readMetadata(epub);
+
+        // then
+        assertEquals("Solaris", metadata.getTitle());
+        assertEquals("Stanisław Lem", metadata.getAuthor());
+        assertEquals("EPUB/img/okładka.png", metadata.getCoverHref());
+    }
+
+    @Test
+    @DisplayName("givenArchiveWithoutContainerXml_whenOpening_thenShouldThrowIOException")
+    void givenArchiveWithoutContainerXml_whenOpening_thenShouldThrowIOException() throws IOException {
+        // given
+        Path epub = TestEpubFiles.write(tempDir, Map.of("mimetype", "application/epub+zip"));
+
+        // when / then
+        assertThrows(IOException.class, () -> EpubArchive.open(epub));
+    }
+}
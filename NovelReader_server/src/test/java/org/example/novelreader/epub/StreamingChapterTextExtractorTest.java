@@ -0,0 +1,113 @@
+package org.example.novelreader.epub;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("StreamingChapterTextExtractor - Testy jednostkowe")
+class StreamingChapterTextExtractorTest {
+
+    private final StreamingChapterTextExtractor streaming = new StreamingChapterTextExtractor();
+    private final JsoupChapterTextExtractor jsoup = new JsoupChapterTextExtractor();
+
+    private static final String HEAD = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<!DOCTYPE html>\n"
+            + "<html xmlns=\"http://www.w3.org/1999/xhtml\">\n<head>\n  <title>Księga pierwsza</title>\n"
+            + "  <link rel=\"stylesheet\" type=\"text/css\" href=\"style.css\"/>\n</head>\n<body>\n";
+    private static final String FOOT = "\n</body>\n</html>\n";
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "<h1>Gospodarstwo</h1>\n<p>Litwo! <em>Ojczyzno</em> moja!   ty jesteś\n jak zdrowie.</p>",
+            "<p>Ile cię trzeba cenić,<br/>ten tylko się dowie,<br />kto cię stracił.</p>",
+            "<div><p>a</p>b<p>c</p></div>tekst za blokiem",
+            "<p>Encje: &amp; &lt;b&gt; &nbsp;&nbsp; &#8212; &#x41; &hellip; &copy &nieznana; &#150;</p>",
+            "<pre>\n  wiersz 1\n    wiersz 2  </pre><p>po pre</p>",
+            "<!-- komentarz --><p>x</p><script type=\"text/javascript\">var s = '<p>nie tekst</p>';</script><p>y</p>",
+            "<ul><li>jeden<li>dwa</ul><table><tr><td>1</td><td>2</td></tr></table>",
+            "<p>miękki\u00ADdywiz i zero\u200Bwidth</p><hr/><p>koniec</p>",
+            "<p><img src=\"a.png\" alt=\"a > b\"/>obrazek <span>i</span><span>span</span></p><p>niedomknięty",
+            "<section><h2>Rozdział 2</h2><p>tekst</p></section>\n\n<aside>przypis</aside>"
+    })
+    @DisplayName("givenChapterXhtml_whenExtracting_thenShouldMatchJsoupDocumentText")
+    void givenChapterXhtml_whenExtracting_thenShouldMatchJsoupDocumentText(String body) {
+        // given
+        byte[] raw = (HEAD + body + FOOT).getBytes(StandardCharsets.UTF_8);
+
+        // when
+        ChapterText actual = streaming.extract(raw);
+        ChapterText expected = jsoup.extract(raw);
+
+        // then
+        assertEquals(expected.getText(), actual.getText());
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getHtml(), actual.getHtml());
+    }
+
+    @Test
+    @DisplayName("givenChapterWithoutTitle_whenExtracting_thenShouldReturnNullTitle")
+    void givenChapterWithoutTitle_whenExtracting_thenShouldReturnNullTitle() {
+        // given
+        byte[] raw = "<html><body><p>Bez tytułu</p></body></html>".getBytes(StandardCharsets.UTF_8);
+
+        // when
+        ChapterText chapter = streaming.extract(raw);
+
+        // then
+        assertNull(chapter.getTitle());
+        assertEquals("Bez tytułu", chapter.getText());
+    }
+
+    @Test
+    @DisplayName("givenDeclaredIso88592_whenExtracting_thenShouldDecodePolishCharacters")
+    void givenDeclaredIso88592_whenExtracting_thenShouldDecodePolishCharacters() {
+        // given
+        String xhtml = "<?xml version=\"1.0\" encoding=\"ISO-8859-2\"?><html><head><title>Zażółć</title></head>"
+                + "<body><p>gęślą jaźń</p></body></html>";
+        byte[] raw = xhtml.getBytes(Charset.forName("ISO-8859-2"));
+
+        // when
+        ChapterText chapter = streaming.extract(raw);
+
+        // then
+        assertEquals("Zażółć", chapter.getTitle());
+        assertEquals("Zażółć gęślą jaźń", chapter.getText());
+    }
+
+    @Test
+    @DisplayName("givenUtf8Bom_whenDecoding_thenShouldDropBom")
+    void givenUtf8Bom_whenDecoding_thenShouldDropBom() {
+        // given
+        byte[] body = "<p>ż</p>".getBytes(StandardCharsets.UTF_8);
+        byte[] raw = new byte[body.length + 3];
+        raw[0] = (byte) 0xEF;
+        raw[1] = (byte) 0xBB;
+        raw[2] = (byte) 0xBF;
+        System.arraycopy(body, 0, raw, 3, body.length);
+
+        // when
+        String html = ChapterDecoder.decode(raw);
+
+        // then
+        assertEquals("<p>ż</p>", html);
+    }
+
+    @Test
+    @DisplayName("givenNoDeclaration_whenDecoding_thenShouldUseUtf8")
+    void givenNoDeclaration_whenDecoding_thenShouldUseUtf8() {
+        // given
+        byte[] raw = "<p>źdźbło</p>".getBytes(StandardCharsets.UTF_8);
+
+        // when
+        Charset charset = ChapterDecoder.detectCharset(raw);
+
+        // then
+        assertEquals(StandardCharsets.UTF_8, charset);
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.novelreader.epub;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// małe EPUB-y składane w testach z podanych wpisów (ścieżka w archiwum -> treść)
+public final class TestEpubFiles {
+
+    private TestEpubFiles() {
+    }
+
+    public static String container(String opfPath) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<container version=\"1.0\" xmlns=\"urn:oasis:names:tc:opendocument:xmlns:container\">\n"
+                + "  <rootfiles><rootfile full-path=\"" + opfPath + "\" media-type=\"application/oebps-package+xml\"/></rootfiles>\n"
+                + "</container>\n";
+    }
+
+    public static Path write(Path dir, Map<String, String> entries) throws IOException {
+        Path path = Files.createTempFile(dir, "book-", ".epub");
+        try (OutputStream out = Files.newOutputStream(path); ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return path;
+    }
+}
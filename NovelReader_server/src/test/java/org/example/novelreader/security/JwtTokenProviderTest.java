@@ -0,0 +1,82 @@
+package org.example.novelreader.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("JwtTokenProvider - Testy jednostkowe")
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "SekretDoTestowKtoryMaCoNajmniej256BitowDlugosci!";
+
+    private final JwtTokenProvider provider = new JwtTokenProvider(SECRET, 60_000, 100);
+
+    @Test
+    @DisplayName("givenIssuedToken_whenParsingTwice_thenShouldReturnSameUser")
+    void givenIssuedToken_whenParsingTwice_thenShouldReturnSameUser() {
+        // given
+        String token = provider.generateToken(42L, "jan");
+
+        // when
+        AuthenticatedUser first = provider.parseAuthenticatedUser(token).orElseThrow();
+        AuthenticatedUser second = provider.parseAuthenticatedUser(token).orElseThrow();
+
+        // then
+        assertEquals(42L, first.getUserId());
+        assertEquals("jan", first.getUsername());
+        assertSame(first, second);
+    }
+
+    @Test
+    @DisplayName("givenTokenSignedWithOtherKey_whenParsing_thenShouldReject")
+    void givenTokenSignedWithOtherKey_whenParsing_thenShouldReject() {
+        // given
+        JwtTokenProvider other = new JwtTokenProvider(SECRET.replace('S', 'X'), 60_000, 100);
+        String token = other.generateToken(42L, "jan");
+
+        // when
+        Optional<AuthenticatedUser> user = provider.parseAuthenticatedUser(token);
+
+        // then
+        assertTrue(user.isEmpty());
+    }
+
+    @Test
+    @DisplayName("givenExpiredEntry_whenReadingCache_thenShouldMissAndDropIt")
+    void givenExpiredEntry_whenReadingCache_thenShouldMissAndDropIt() {
+        // given
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        cache.put("token", new AuthenticatedUser(1L, "jan"), 1_000);
+
+        // when
+        Optional<AuthenticatedUser> beforeExpiry = cache.get("token", 999);
+        Optional<AuthenticatedUser> afterExpiry = cache.get("token", 1_000);
+
+        // then
+        assertTrue(beforeExpiry.isPresent());
+        assertTrue(afterExpiry.isEmpty());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("givenFullCache_whenAddingToken_thenShouldEvictLeastRecentlyUsed")
+    void givenFullCache_whenAddingToken_thenShouldEvictLeastRecentlyUsed() {
+        // given
+        VerifiedTokenCache cache = new VerifiedTokenCache(2);
+        cache.put("a", new AuthenticatedUser(1L, "a"), Long.MAX_VALUE);
+        cache.put("b", new AuthenticatedUser(2L, "b"), Long.MAX_VALUE);
+        cache.get("a", 0);
+
+        // when
+        cache.put("c", new AuthenticatedUser(3L, "c"), Long.MAX_VALUE);
+
+        // then
+        assertEquals(2, cache.size());
+        assertTrue(cache.get("a", 0).isPresent());
+        assertTrue(cache.get("b", 0).isEmpty());
+        assertTrue(cache.get("c", 0).isPresent());
+    }
+}
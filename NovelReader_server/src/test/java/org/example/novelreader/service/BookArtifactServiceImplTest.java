@@ -0,0 +1,170 @@
+package org.example.novelreader.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.novelreader.dto.ChapterDto;
+import org.example.novelreader.dto.EpubDto;
+import org.example.novelreader.dto.MetadataDto;
+import org.example.novelreader.entity.Book;
+import org.example.novelreader.entity.BookChapter;
+import org.example.novelreader.entity.BookPreview;
+import org.example.novelreader.repository.BookChapterRepository;
+import org.example.novelreader.repository.BookPreviewRepository;
+import org.example.novelreader.repository.BookRepository;
+import org.example.novelreader.storage.BookContentStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("BookArtifactServiceImpl - Testy jednostkowe")
+class BookArtifactServiceImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    // parsowanie stoi na zatrzasku, dopóki test nie upewni się, że drugi wątek już czeka
+    private static class BlockingEpubService implements EpubService {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger parses = new AtomicInteger();
+        IOException failure;
+
+        @Override
+        public EpubDto parseEpubFromFilePath(String filePath) throws IOException {
+            parses.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return EpubDto.builder()
+                    .metadata(MetadataDto.builder().title("Lalka").build())
+                    .chapters(List.of(ChapterDto.builder().index(0).title("Tom I").text("W początkach").build()))
+                    .build();
+        }
+
+        @Override
+        public String generatePreview(EpubDto epubDto, int maxChars) {
+            return "W początkach";
+        }
+
+        @Override
+        public EpubDto parseEpub(MultipartFile file) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public MetadataDto parseMetadata(MultipartFile file) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public MetadataDto parseMetadataFromFilePath(String filePath) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private final BlockingEpubService epubService = new BlockingEpubService();
+    private final BookChapterRepository bookChapterRepository = mock(BookChapterRepository.class);
+    private final BookPreviewRepository bookPreviewRepository = mock(BookPreviewRepository.class);
+
+    private BookArtifactServiceImpl service() {
+        return new BookArtifactServiceImpl(epubService, new BookContentStore(new ObjectMapper()),
+                bookChapterRepository, mock(BookRepository.class), bookPreviewRepository);
+    }
+
+    private Book book(Long id) {
+        return Book.builder()
+                .id(id)
+                .filePath(tempDir.resolve("blob.epub").toString())
+                .contentSha256("abc123")
+                .build();
+    }
+
+    private static FutureTask<EpubDto> build(BookArtifactServiceImpl service, Book book) {
+        return new FutureTask<>(() -> service.buildArtifacts(book));
+    }
+
+    // czekający parkuje na przyszłości prowadzącego - dopiero wtedy wolno puścić parsowanie
+    private static void awaitParked(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.WAITING) {
+            assertTrue(System.nanoTime() < deadline, "Drugi wątek nie zaczął czekać na wynik");
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    @DisplayName("givenTwoBooksWithSameFile_whenBuildingConcurrently_thenShouldParseOnceAndIndexBoth")
+    void givenTwoBooksWithSameFile_whenBuildingConcurrently_thenShouldParseOnceAndIndexBoth() throws Exception {
+        // given
+        BookArtifactServiceImpl service = service();
+        FutureTask<EpubDto> leader = build(service, book(1L));
+        FutureTask<EpubDto> waiter = build(service, book(2L));
+        new Thread(leader).start();
+        assertTrue(epubService.started.await(5, TimeUnit.SECONDS));
+        Thread waiterThread = new Thread(waiter);
+        waiterThread.start();
+        awaitParked(waiterThread);
+
+        // when
+        epubService.release.countDown();
+        EpubDto leaderResult = leader.get(5, TimeUnit.SECONDS);
+        EpubDto waiterResult = waiter.get(5, TimeUnit.SECONDS);
+
+        // then
+        assertEquals(1, epubService.parses.get());
+        assertSame(leaderResult, waiterResult);
+        for (long bookId : new long[]{1L, 2L}) {
+            verify(bookChapterRepository).insertChapters(argThat((List<BookChapter> rows) ->
+                    rows.size() == 1 && rows.get(0).getBookId() == bookId && "Tom I".equals(rows.get(0).getTitle())));
+            verify(bookPreviewRepository).save(argThat((BookPreview preview) ->
+                    preview.getBookId() == bookId && "W początkach".equals(preview.getPreview())));
+        }
+    }
+
+    @Test
+    @DisplayName("givenLeaderParseFails_whenWaiting_thenShouldRethrowLeaderException")
+    void givenLeaderParseFails_whenWaiting_thenShouldRethrowLeaderException() throws Exception {
+        // given
+        BookArtifactServiceImpl service = service();
+        epubService.failure = new IOException("Uszkodzony plik EPUB");
+        FutureTask<EpubDto> leader = build(service, book(1L));
+        FutureTask<EpubDto> waiter = build(service, book(2L));
+        new Thread(leader).start();
+        assertTrue(epubService.started.await(5, TimeUnit.SECONDS));
+        Thread waiterThread = new Thread(waiter);
+        waiterThread.start();
+        awaitParked(waiterThread);
+
+        // when
+        epubService.release.countDown();
+        ExecutionException leaderError = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        ExecutionException waiterError = assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+
+        // then
+        assertEquals(1, epubService.parses.get());
+        assertSame(epubService.failure, leaderError.getCause());
+        assertInstanceOf(IOException.class, waiterError.getCause());
+        assertSame(epubService.failure, waiterError.getCause().getCause());
+        verify(bookChapterRepository, never()).insertChapters(any());
+        verify(bookPreviewRepository, never()).save(any());
+    }
+}
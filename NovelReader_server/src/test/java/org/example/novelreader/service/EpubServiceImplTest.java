@@ -0,0 +1,121 @@
+package org.example.novelreader.service;
+
+import org.example.novelreader.dto.ChapterDto;
+import org.example.novelreader.dto.EpubDto;
+import org.example.novelreader.epub.ChapterText;
+import org.example.novelreader.epub.TestEpubFiles;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("EpubServiceImpl - Testy jednostkowe")
+class EpubServiceImplTest {
+
+    private static final int CHAPTERS = 8;
+
+    @TempDir
+    Path tempDir;
+
+    private final ForkJoinPool parsePool = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        parsePool.shutdownNow();
+    }
+
+    // rozdział to sam numer - wcześniejsze rozdziały śpią dłużej, więc kończą się w odwrotnej kolejności
+    private static ChapterText slowerForEarlierChapters(byte[] raw) {
+        String body = new String(raw, StandardCharsets.UTF_8);
+        try {
+            Thread.sleep((CHAPTERS - Integer.parseInt(body)) * 10L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return new ChapterText(body, body, "Rozdział " + body);
+    }
+
+    private Path epubWithChapters(int count, int missing) throws IOException {
+        StringBuilder manifest = new StringBuilder();
+        StringBuilder spine = new StringBuilder();
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("META-INF/container.xml", TestEpubFiles.container("content.opf"));
+        for (int i = 0; i < count; i++) {
+            manifest.append("<item id=\"r").append(i).append("\" href=\"r").append(i)
+                    .append(".xhtml\" media-type=\"application/xhtml+xml\"/>");
+            spine.append("<itemref idref=\"r").append(i).append("\"/>");
+            if (i != missing) {
+                entries.put("r" + i + ".xhtml", String.valueOf(i));
+            }
+        }
+        entries.put("content.opf", "<package xmlns=\"http://www.idpf.org/2007/opf\" version=\"3.0\">"
+                + "<metadata xmlns:dc=\"http://purl.org/dc/elements/1.1/\"><dc:title>Zbiór</dc:title></metadata>"
+                + "<manifest>" + manifest + "</manifest><spine>" + spine + "</spine></package>");
+        return TestEpubFiles.write(tempDir, entries);
+    }
+
+    @Test
+    @DisplayName("givenChaptersFinishingOutOfOrder_whenParsing_thenShouldReturnThemInSpineOrder")
+    void givenChaptersFinishingOutOfOrder_whenParsing_thenShouldReturnThemInSpineOrder() throws IOException {
+        // given
+        EpubServiceImpl service = new EpubServiceImpl(parsePool, EpubServiceImplTest::slowerForEarlierChapters);
+        Path epub = epubWithChapters(CHAPTERS, -1);
+
+        // when
+        EpubDto book = service.parseEpubFromFilePath(epub.toString());
+
+        // then
+        List<ChapterDto> chapters = book.getChapters();
+        assertEquals(CHAPTERS, chapters.size());
+        for (int i = 0; i < CHAPTERS; i++) {
+            assertEquals(i, chapters.get(i).getIndex());
+            assertEquals("Rozdział " + i, chapters.get(i).getTitle());
+            assertEquals(String.valueOf(i), chapters.get(i).getText());
+        }
+    }
+
+    @Test
+    @DisplayName("givenMissingChapterEntry_whenParsing_thenShouldRethrowItsIOException")
+    void givenMissingChapterEntry_whenParsing_thenShouldRethrowItsIOException() throws IOException {
+        // given
+        EpubServiceImpl service = new EpubServiceImpl(parsePool, EpubServiceImplTest::slowerForEarlierChapters);
+        Path epub = epubWithChapters(CHAPTERS, 5);
+
+        // when
+        IOException error = assertThrows(IOException.class, () -> service.parseEpubFromFilePath(epub.toString()));
+
+        // then
+        assertTrue(error.getMessage().contains("r5.xhtml"), error.getMessage());
+    }
+
+    @Test
+    @DisplayName("givenExtractorFailingOnOneChapter_whenParsing_thenShouldRethrowItsException")
+    void givenExtractorFailingOnOneChapter_whenParsing_thenShouldRethrowItsException() throws IOException {
+        // given
+        IllegalStateException failure = new IllegalStateException("Nie da się odczytać rozdziału 3");
+        EpubServiceImpl service = new EpubServiceImpl(parsePool, raw -> {
+            if ("3".equals(new String(raw, StandardCharsets.UTF_8))) {
+                throw failure;
+            }
+            return slowerForEarlierChapters(raw);
+        });
+        Path epub = epubWithChapters(CHAPTERS, -1);
+
+        // when
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> service.parseEpubFromFilePath(epub.toString()));
+
+        // then - ForkJoinTask może podać kopię wyjątku z innego wątku, więc porównujemy treść
+        assertTrue(error.getMessage().contains(failure.getMessage()), error.getMessage());
+    }
+}
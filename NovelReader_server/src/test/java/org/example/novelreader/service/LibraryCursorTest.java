@@ -0,0 +1,54 @@
+package org.example.novelreader.service;
+
+import org.example.novelreader.exception.InvalidRequestException;
+import org.example.novelreader.repository.BookSort;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LibraryCursor - Testy jednostkowe")
+class LibraryCursorTest {
+
+    @Test
+    @DisplayName("givenTitleWithSeparator_whenEncodingAndDecoding_thenShouldRestoreKeyAndId")
+    void givenTitleWithSeparator_whenEncodingAndDecoding_thenShouldRestoreKeyAndId() {
+        // given
+        LibraryCursor cursor = new LibraryCursor(BookSort.TITLE, false, "Lalka | tom 1", 42L);
+
+        // when
+        LibraryCursor decoded = LibraryCursor.decode(cursor.encode(), BookSort.TITLE, false);
+
+        // then
+        assertEquals("Lalka | tom 1", decoded.key());
+        assertEquals(42L, decoded.id());
+    }
+
+    @Test
+    @DisplayName("givenDateCursor_whenDecoding_thenShouldRestoreTimestamp")
+    void givenDateCursor_whenDecoding_thenShouldRestoreTimestamp() {
+        // given
+        LocalDateTime uploadedAt = LocalDateTime.of(2025, 3, 14, 15, 9, 26, 535_897_000);
+        String encoded = new LibraryCursor(BookSort.UPLOADED_AT, true, uploadedAt, 7L).encode();
+
+        // when
+        LibraryCursor decoded = LibraryCursor.decode(encoded, BookSort.UPLOADED_AT, true);
+
+        // then
+        assertEquals(uploadedAt, decoded.key());
+    }
+
+    @Test
+    @DisplayName("givenCursorFromOtherSort_whenDecoding_thenShouldReject")
+    void givenCursorFromOtherSort_whenDecoding_thenShouldReject() {
+        // given
+        String encoded = new LibraryCursor(BookSort.TITLE, false, "Lalka", 1L).encode();
+
+        // when / then
+        assertThrows(InvalidRequestException.class, () -> LibraryCursor.decode(encoded, BookSort.AUTHOR, false));
+        assertThrows(InvalidRequestException.class, () -> LibraryCursor.decode(encoded, BookSort.TITLE, true));
+        assertThrows(InvalidRequestException.class, () -> LibraryCursor.decode("nie-kursor!", BookSort.TITLE, false));
+    }
+}
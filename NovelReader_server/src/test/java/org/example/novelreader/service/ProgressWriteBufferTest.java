@@ -0,0 +1,111 @@
+package org.example.novelreader.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ProgressWriteBuffer - Testy jednostkowe")
+class ProgressWriteBufferTest {
+
+    // zamiast bazy - zapamiętuje paczki, opcjonalnie udaje awarię
+    private static class RecordingJdbcTemplate extends JdbcTemplate {
+        final List<List<Object[]>> batches = new ArrayList<>();
+        boolean failing;
+        Runnable duringBatch = () -> { };
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            duringBatch.run();
+            if (failing) {
+                throw new DataAccessResourceFailureException("baza niedostępna");
+            }
+            batches.add(batchArgs);
+            return new int[batchArgs.size()];
+        }
+    }
+
+    private final RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+    private final ProgressWriteBuffer buffer = new ProgressWriteBuffer(jdbcTemplate);
+
+    @Test
+    @DisplayName("givenManyUpdatesOfSameBook_whenFlushing_thenShouldWriteOnlyLastOneInSingleBatch")
+    void givenManyUpdatesOfSameBook_whenFlushing_thenShouldWriteOnlyLastOneInSingleBatch() {
+        // given
+        buffer.put(1L, 10L, 0, 100);
+        buffer.put(1L, 10L, 2, 50);
+        buffer.put(2L, 10L, 1, 0);
+
+        // when
+        int written = buffer.flush();
+
+        // then
+        assertEquals(2, written);
+        assertEquals(1, jdbcTemplate.batches.size());
+        Object[] row = jdbcTemplate.batches.get(0).stream()
+                .filter(r -> r[0].equals(1L))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(2, row[2]);
+        assertEquals(50, row[3]);
+        assertTrue(buffer.get(1L, 10L).isEmpty());
+    }
+
+    @Test
+    @DisplayName("givenUnflushedUpdate_whenReading_thenShouldReturnBufferedProgress")
+    void givenUnflushedUpdate_whenReading_thenShouldReturnBufferedProgress() {
+        // given
+        buffer.put(1L, 10L, 3, 7);
+
+        // when
+        ProgressWriteBuffer.PendingProgress progress = buffer.get(1L, 10L).orElseThrow();
+
+        // then
+        assertEquals(3, progress.chapterIndex());
+        assertEquals(7, progress.offsetInChapter());
+        assertTrue(jdbcTemplate.batches.isEmpty());
+    }
+
+    @Test
+    @DisplayName("givenDatabaseFailure_whenFlushing_thenShouldKeepProgressForNextFlush")
+    void givenDatabaseFailure_whenFlushing_thenShouldKeepProgressForNextFlush() {
+        // given
+        buffer.put(1L, 10L, 3, 7);
+        jdbcTemplate.failing = true;
+
+        // when
+        int failed = buffer.flush();
+        jdbcTemplate.failing = false;
+        int retried = buffer.flush();
+
+        // then
+        assertEquals(0, failed);
+        assertEquals(1, retried);
+        assertEquals(1, jdbcTemplate.batches.size());
+    }
+
+    @Test
+    @DisplayName("givenFlushInProgress_whenReadingAndUpdating_thenShouldSeeBufferedProgressAndKeepNewerOne")
+    void givenFlushInProgress_whenReadingAndUpdating_thenShouldSeeBufferedProgressAndKeepNewerOne() {
+        // given
+        buffer.put(1L, 10L, 3, 7);
+        List<Integer> seenDuringFlush = new ArrayList<>();
+        jdbcTemplate.duringBatch = () -> {
+            seenDuringFlush.add(buffer.get(1L, 10L).orElseThrow().chapterIndex());
+            buffer.put(1L, 10L, 4, 0);
+            seenDuringFlush.add(buffer.get(1L, 10L).orElseThrow().chapterIndex());
+        };
+
+        // when
+        buffer.flush();
+
+        // then
+        assertEquals(List.of(3, 4), seenDuringFlush);
+        assertEquals(4, buffer.get(1L, 10L).orElseThrow().chapterIndex());
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.novelreader.storage;
+
+import org.example.novelreader.dto.ChapterDto;
+import org.example.novelreader.dto.EpubDto;
+import org.example.novelreader.dto.MetadataDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BookContentFile - Testy jednostkowe")
+class BookContentFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    private EpubDto sampleBook() {
+        MetadataDto metadata = MetadataDto.builder()
+                .title("Pan Tadeusz")
+                .author("Adam Mickiewicz")
+                .language("pl")
+                .coverHref("OEBPS/images/cover.jpg")
+                .build();
+
+        return EpubDto.builder()
+                .metadata(metadata)
+                .chapters(List.of(
+                        ChapterDto.builder().index(0).title("Księga pierwsza")
+                                .html("<p>Litwo! Ojczyzno moja!</p>").text("Litwo! Ojczyzno moja!").build(),
+                        ChapterDto.builder().index(1).title("Księga druga")
+                                .html("<p>Zamek</p>").text("Zamek").build(),
+                        ChapterDto.builder().index(2).title(null)
+                                .html(null).text("Epilog 📚").build()))
+                .build();
+    }
+
+    @Test
+    @DisplayName("givenWrittenBook_whenReadingAll_thenShouldRestoreMetadataAndChapters")
+    void givenWrittenBook_whenReadingAll_thenShouldRestoreMetadataAndChapters() throws IOException {
+        // given
+        Path path = tempDir.resolve("book.epub.chapters");
+        BookContentFile.write(path, sampleBook());
+
+        // when
+        EpubDto restored;
+        try (BookContentFile file = BookContentFile.open(path)) {
+            restored = file.readAll();
+        }
+
+        // then
+        assertEquals("Pan Tadeusz", restored.getMetadata().getTitle());
+        assertEquals("Adam Mickiewicz", restored.getMetadata().getAuthor());
+        assertNull(restored.getMetadata().getDescription());
+        assertEquals("OEBPS/images/cover.jpg", restored.getMetadata().getCoverHref());
+        assertEquals(3, restored.getChapters().size());
+        assertEquals("Księga druga", restored.getChapters().get(1).getTitle());
+        assertEquals("<p>Zamek</p>", restored.getChapters().get(1).getHtml());
+        assertNull(restored.getChapters().get(2).getTitle());
+        assertNull(restored.getChapters().get(2).getHtml());
+        assertEquals("Epilog 📚", restored.getChapters().get(2).getText());
+    }
+
+    @Test
+    @DisplayName("givenWrittenBook_whenReadingSingleChapter_thenShouldReturnOnlyThatChapterWithIndex")
+    void givenWrittenBook_whenReadingSingleChapter_thenShouldReturnOnlyThatChapterWithIndex() throws IOException {
+        // given
+        Path path = tempDir.resolve("book.epub.chapters");
+        BookContentFile.write(path, sampleBook());
+
+        // when & then
+        try (BookContentFile file = BookContentFile.open(path)) {
+            ChapterDto chapter = file.readChapter(1);
+            assertEquals(1, chapter.getIndex());
+            assertEquals("Zamek", chapter.getText());
+            assertEquals(3, file.getChapterCount());
+            assertEquals("Księga pierwsza", file.getChapterTitle(0));
+            assertEquals("Litwo! Ojczyzno moja!".length(), file.getChapterTextLength(0));
+            assertThrows(IndexOutOfBoundsException.class, () -> file.readChapter(3));
+        }
+    }
+
+    @Test
+    @DisplayName("givenFileWithDifferentVersion_whenOpening_thenShouldThrowFormatException")
+    void givenFileWithDifferentVersion_whenOpening_thenShouldThrowFormatException() throws IOException {
+        // given
+        Path path = tempDir.resolve("book.epub.chapters");
+        BookContentFile.write(path, sampleBook());
+        try (RandomAccessFile raf = new RandomAccessFile(path.toFile(), "rw")) {
+            raf.seek(Integer.BYTES);
+            raf.writeShort(BookContentFile.FORMAT_VERSION + 1);
+        }
+
+        // when & then
+        assertThrows(BookContentFormatException.class, () -> BookContentFile.open(path));
+    }
+
+    @Test
+    @DisplayName("givenLegacyJsonFile_whenOpening_thenShouldThrowFormatException")
+    void givenLegacyJsonFile_whenOpening_thenShouldThrowFormatException() throws IOException {
+        // given
+        Path path = tempDir.resolve("book.epub.chapters");
+        Files.writeString(path, "{\"metadata\":{},\"chapters\":[]}");
+
+        // when & then
+        assertThrows(BookContentFormatException.class, () -> BookContentFile.open(path));
+    }
+}
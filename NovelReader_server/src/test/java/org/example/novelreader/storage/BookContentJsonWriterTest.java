@@ -0,0 +1,81 @@
+package org.example.novelreader.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.novelreader.dto.ChapterDto;
+import org.example.novelreader.dto.EpubDto;
+import org.example.novelreader.dto.MetadataDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BookContentJsonWriter - Testy jednostkowe")
+class BookContentJsonWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BookContentJsonWriter writer = new BookContentJsonWriter(objectMapper);
+
+    private EpubDto sampleBook() {
+        return EpubDto.builder()
+                .metadata(MetadataDto.builder()
+                        .title("Pan Tadeusz")
+                        .author("Adam Mickiewicz")
+                        .language("pl")
+                        .build())
+                .chapters(List.of(
+                        ChapterDto.builder().index(0).title("Księga pierwsza")
+                                .html("<p>Litwo! \"Ojczyzno\" moja!</p>").text("Litwo! \"Ojczyzno\" moja!").build(),
+                        ChapterDto.builder().index(1).title(null)
+                                .html(null).text("Epilog 📚").build()))
+                .build();
+    }
+
+    @Test
+    @DisplayName("givenStoredBook_whenStreaming_thenShouldMatchEpubDtoSerialization")
+    void givenStoredBook_whenStreaming_thenShouldMatchEpubDtoSerialization() throws IOException {
+        // given
+        EpubDto book = sampleBook();
+        Path path = tempDir.resolve("book.epub.chapters");
+        BookContentFile.write(path, book);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when
+        try (BookContentFile content = BookContentFile.open(path)) {
+            writer.write(content, out);
+        }
+
+        // then
+        assertArrayEquals(objectMapper.writeValueAsBytes(book), out.toByteArray());
+    }
+
+    @Test
+    @DisplayName("givenBookWithoutChapters_whenStreaming_thenShouldWriteEmptyArray")
+    void givenBookWithoutChapters_whenStreaming_thenShouldWriteEmptyArray() throws IOException {
+        // given
+        EpubDto book = EpubDto.builder()
+                .metadata(MetadataDto.builder().title("Pusta").build())
+                .chapters(List.of())
+                .build();
+        Path path = tempDir.resolve("empty.epub.chapters");
+        BookContentFile.write(path, book);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when
+        try (BookContentFile content = BookContentFile.open(path)) {
+            writer.write(content, out);
+        }
+
+        // then
+        assertEquals(objectMapper.writeValueAsString(book), out.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.novelreader.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.novelreader.dto.ChapterDto;
+import org.example.novelreader.dto.EpubDto;
+import org.example.novelreader.dto.MetadataDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BookContentStore - Testy jednostkowe")
+class BookContentStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("givenExistingContent_whenWritingAgain_thenShouldReplaceItWithoutLeavingTempFiles")
+    void givenExistingContent_whenWritingAgain_thenShouldReplaceItWithoutLeavingTempFiles() throws IOException {
+        // given
+        BookContentStore store = new BookContentStore(new ObjectMapper());
+        String bookPath = tempDir.resolve("book.epub").toString();
+        MetadataDto metadata = MetadataDto.builder().title("Książka").build();
+        store.write(bookPath, EpubDto.builder()
+                .metadata(metadata)
+                .chapters(List.of(ChapterDto.builder().index(0).title("Rozdział 1").text("Stara treść").build()))
+                .build());
+
+        // when
+        store.write(bookPath, EpubDto.builder()
+                .metadata(metadata)
+                .chapters(List.of(ChapterDto.builder().index(0).title("Rozdział 1").text("Nowa treść").build()))
+                .build());
+
+        // then
+        EpubDto read = store.readBook(bookPath).orElseThrow();
+        assertEquals("Nowa treść", read.getChapters().get(0).getText());
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(List.of("book.epub.chapters"), files.map(p -> p.getFileName().toString()).toList());
+        }
+    }
+
+    @Test
+    @DisplayName("givenLegacyJsonSidecar_whenOpening_thenShouldReturnMigratedContentAndRemoveJson")
+    void givenLegacyJsonSidecar_whenOpening_thenShouldReturnMigratedContentAndRemoveJson() throws IOException {
+        // given
+        ObjectMapper objectMapper = new ObjectMapper();
+        BookContentStore store = new BookContentStore(objectMapper);
+        String bookPath = tempDir.resolve("book.epub").toString();
+        EpubDto legacy = EpubDto.builder()
+                .metadata(MetadataDto.builder().title("Lalka").author("Bolesław Prus").build())
+                .chapters(List.of(
+                        ChapterDto.builder().index(0).title("Tom I").html("<p>W początkach</p>").text("W początkach").build(),
+                        ChapterDto.builder().index(1).title("Tom II").html("<p>Pan Ignacy</p>").text("Pan Ignacy").build()))
+                .build();
+        objectMapper.writeValue(tempDir.resolve("book.epub.json").toFile(), legacy);
+
+        // when
+        EpubDto migrated;
+        try (BookContentFile content = store.open(bookPath).orElseThrow()) {
+            migrated = content.readAll();
+        }
+
+        // then
+        assertEquals("Lalka", migrated.getMetadata().getTitle());
+        assertEquals(2, migrated.getChapters().size());
+        assertEquals("Pan Ignacy", migrated.getChapters().get(1).getText());
+        assertFalse(Files.exists(tempDir.resolve("book.epub.json")));
+        assertTrue(store.exists(bookPath));
+    }
+}
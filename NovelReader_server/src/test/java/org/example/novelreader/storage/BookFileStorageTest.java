@@ -0,0 +1,136 @@
+package org.example.novelreader.storage;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BookFileStorage - Testy jednostkowe")
+class BookFileStorageTest {
+
+    // SHA-256("abc")
+    private static final String ABC_SHA256 = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("givenUpload_whenReceiving_thenShouldWriteTempFileWithDigestAndSize")
+    void givenUpload_whenReceiving_thenShouldWriteTempFileWithDigestAndSize() throws IOException {
+        // given
+        BookFileStorage storage = new BookFileStorage(tempDir.toString());
+        MockMultipartFile file = new MockMultipartFile("file", "pan-tadeusz.epub", "application/epub+zip",
+                "abc".getBytes(StandardCharsets.UTF_8));
+
+        // when
+        StoredFile stored = storage.receive(file);
+
+        // then
+        assertEquals(tempDir.resolve("blobs"), stored.getPath().getParent());
+        assertEquals("abc", Files.readString(stored.getPath()));
+        assertEquals(3, stored.getSize());
+        assertEquals(ABC_SHA256, stored.getSha256());
+    }
+
+    @Test
+    @DisplayName("givenReceivedFile_whenSharing_thenShouldLinkItUnderItsDigestAndKeepSource")
+    void givenReceivedFile_whenSharing_thenShouldLinkItUnderItsDigestAndKeepSource() throws IOException {
+        // given
+        BookFileStorage storage = new BookFileStorage(tempDir.toString());
+        StoredFile stored = storage.receive(new MockMultipartFile("file", "a.epub", null, "abc".getBytes(StandardCharsets.UTF_8)));
+        Path blob = storage.blobPath(stored.getSha256());
+
+        // when
+        storage.share(stored.getPath(), blob);
+        storage.delete(stored.getPath());
+
+        // then
+        assertEquals(tempDir.resolve("blobs").resolve("ba").resolve(ABC_SHA256 + ".epub"), blob);
+        assertEquals("abc", Files.readString(blob));
+    }
+
+    @Test
+    @DisplayName("givenExistingBlob_whenSharingDuplicate_thenShouldKeepExistingBlobAndSource")
+    void givenExistingBlob_whenSharingDuplicate_thenShouldKeepExistingBlobAndSource() throws IOException {
+        // given
+        BookFileStorage storage = new BookFileStorage(tempDir.toString());
+        StoredFile first = storage.receive(new MockMultipartFile("file", "a.epub", null, "abc".getBytes(StandardCharsets.UTF_8)));
+        StoredFile second = storage.receive(new MockMultipartFile("file", "b.epub", null, "abc".getBytes(StandardCharsets.UTF_8)));
+        Path blob = storage.blobPath(first.getSha256());
+        storage.share(first.getPath(), blob);
+
+        // when
+        storage.share(second.getPath(), blob);
+
+        // then
+        assertEquals("abc", Files.readString(blob));
+        assertTrue(Files.exists(first.getPath()));
+        assertTrue(Files.exists(second.getPath()));
+    }
+
+    @Test
+    @DisplayName("givenFailingStream_whenReceiving_thenShouldNotLeaveAnyFiles")
+    void givenFailingStream_whenReceiving_thenShouldNotLeaveAnyFiles() throws IOException {
+        // given
+        BookFileStorage storage = new BookFileStorage(tempDir.toString());
+        Files.createDirectories(tempDir.resolve("blobs"));
+        InputStream broken = new ByteArrayInputStream(new byte[10]) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                throw new IllegalStateException("połączenie zerwane");
+            }
+        };
+
+        // when & then
+        assertThrows(IllegalStateException.class, () -> storage.receive(broken));
+        try (Stream<Path> files = Files.list(tempDir.resolve("blobs"))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("givenChunksWithRetriedTail_whenWriting_thenShouldAssembleFileWithSameDigestAsWholeUpload")
+    void givenChunksWithRetriedTail_whenWriting_thenShouldAssembleFileWithSameDigestAsWholeUpload() throws IOException {
+        // given
+        BookFileStorage storage = new BookFileStorage(tempDir.toString());
+        Path part = storage.createPartFile();
+        storage.writeChunk(part, 0, new ByteArrayInputStream("ab".getBytes(StandardCharsets.UTF_8)), 2);
+        // przerwany kawałek zostawił śmieci za offsetem 2
+        Files.writeString(part, "abXYZ");
+
+        // when
+        String chunkSha = storage.writeChunk(part, 2, new ByteArrayInputStream("c".getBytes(StandardCharsets.UTF_8)), 1);
+        StoredFile assembled = storage.describe(part);
+
+        // then
+        assertEquals("abc", Files.readString(part));
+        assertEquals(ABC_SHA256, assembled.getSha256());
+        assertEquals(3, assembled.getSize());
+        assertEquals("2e7d2c03a9507ae265ecf5b5356885a53393a2029d241394997265a1a25aefc6", chunkSha); // SHA-256("c")
+    }
+
+    @Test
+    @DisplayName("givenChunkShorterThanDeclared_whenWriting_thenShouldTruncateBackToOffset")
+    void givenChunkShorterThanDeclared_whenWriting_thenShouldTruncateBackToOffset() throws IOException {
+        // given
+        BookFileStorage storage = new BookFileStorage(tempDir.toString());
+        Path part = storage.createPartFile();
+        storage.writeChunk(part, 0, new ByteArrayInputStream("ab".getBytes(StandardCharsets.UTF_8)), 2);
+
+        // when & then
+        assertThrows(EOFException.class,
+                () -> storage.writeChunk(part, 2, new ByteArrayInputStream("cd".getBytes(StandardCharsets.UTF_8)), 4));
+        assertEquals("ab", Files.readString(part));
+    }
+}